@@ -0,0 +1,36 @@
+package com.github.dakusui.osynth.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * An entry point of the benchmarks.
+ * It accepts the same options as JMH's own `Main`, but writes the results in JSON
+ * to `jmh-result.json` unless `-rf` or `-rff` is specified, so that results of
+ * different commits can be compared by a tool.
+ */
+public enum BenchmarkRunner {
+  ;
+  public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  public static void main(String... args) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    if (commandLineOptions.shouldHelp()) {
+      commandLineOptions.showHelp();
+      return;
+    }
+    if (commandLineOptions.shouldList()) {
+      new Runner(commandLineOptions).list();
+      return;
+    }
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+    if (!commandLineOptions.getResultFormat().hasValue())
+      options.resultFormat(ResultFormatType.JSON);
+    if (!commandLineOptions.getResult().hasValue())
+      options.result(DEFAULT_RESULT_FILE);
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.dakusui.osynth.benchmarks;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.benchmarks.Interfaces.Calc;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import com.github.dakusui.osynth.core.SynthesizerTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+
+/**
+ * A benchmark for synthesizing a batch of objects, which differ only in their
+ * fallback objects.
+ * Allocation per batch can be measured by running it with `-prof gc`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BulkSynthesisBenchmark {
+  @Param({ "1000", "10000" })
+  public int batchSize;
+
+  /**
+   * The number of threads of an executor used by `synthesizeAll`.
+   */
+  @Param({ "1", "4" })
+  public int numThreads;
+
+  private List<Object>        fallbackObjects;
+  private SynthesizerTemplate template;
+  private ExecutorService     executor;
+
+  @Setup
+  public void setUp() {
+    this.fallbackObjects = new ArrayList<>(this.batchSize);
+    for (int i = 0; i < this.batchSize; i++)
+      this.fallbackObjects.add(new Interfaces.Fallback());
+    this.template = synthesizer().toTemplate();
+    this.executor = Executors.newFixedThreadPool(this.numThreads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.executor.shutdown();
+  }
+
+  /**
+   * A baseline, which synthesizes each object through the `synthesize()` pipeline.
+   */
+  @Benchmark
+  public List<SynthesizedObject> synthesizeOneByOne() {
+    List<SynthesizedObject> ret = new ArrayList<>(this.batchSize);
+    for (Object each : this.fallbackObjects)
+      ret.add(synthesizer().fallbackTo(each).synthesize());
+    return ret;
+  }
+
+  @Benchmark
+  public List<SynthesizedObject> instantiateFromTemplate() {
+    List<SynthesizedObject> ret = new ArrayList<>(this.batchSize);
+    for (Object each : this.fallbackObjects)
+      ret.add(this.template.instantiate(each));
+    return ret;
+  }
+
+  @Benchmark
+  public List<SynthesizedObject> synthesizeAll() {
+    return synthesizer().synthesizeAll(this.fallbackObjects, this.executor);
+  }
+
+  private static ObjectSynthesizer synthesizer() {
+    return new ObjectSynthesizer()
+        .addInterface(Calc.class)
+        .handle(methodCall("handled", int.class).with((synthesizedObject, args) -> (int) args[0] + 1))
+        .handle(methodCall("delegated", int.class).delegatingTo(new Interfaces.DelegationTarget()));
+  }
+}
@@ -0,0 +1,80 @@
+package com.github.dakusui.osynth.benchmarks;
+
+import com.github.dakusui.osynth.benchmarks.Interfaces.Calc;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for method invocations on a synthesized object, one for each dispatch path.
+ * `plainLambda` gives a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DispatchBenchmark {
+  @Benchmark
+  public int plainLambda(SynthesizedObjects state) {
+    return state.plainLambda.applyAsInt(state.value);
+  }
+
+  @Benchmark
+  public int explicitHandler(SynthesizedObjects state) {
+    return state.calc.handled(state.value);
+  }
+
+  /**
+   * Boxes neither the argument nor the returned value, when `synthesisMode` is `compiled`.
+   */
+  @Benchmark
+  public int primitiveHandler(SynthesizedObjects state) {
+    return state.calc.handledWithoutBoxing(state.value);
+  }
+
+  @Benchmark
+  public int fallbackObject(SynthesizedObjects state) {
+    return state.calc.fallback(state.value);
+  }
+
+  @Benchmark
+  public int defaultMethod(SynthesizedObjects state) {
+    return state.calc.defaultMethod(state.value);
+  }
+
+  @Benchmark
+  public int delegatingTo(SynthesizedObjects state) {
+    return state.calc.delegated(state.value);
+  }
+
+  @Benchmark
+  public int autoLogging(SynthesizedObjects state) {
+    return state.autoLoggingCalc.handled(state.value);
+  }
+
+  @Benchmark
+  public int allocationFreeAutoLogging(SynthesizedObjects state) {
+    return state.allocationFreeAutoLoggingCalc.handled(state.value);
+  }
+
+  @Benchmark
+  public Calc castTo(SynthesizedObjects state) {
+    return state.synthesizedObject.castTo(Calc.class);
+  }
+
+  @Benchmark
+  public String builtInToString(SynthesizedObjects state) {
+    return state.synthesizedObject.toString();
+  }
+
+  @Benchmark
+  public int builtInHashCode(SynthesizedObjects state) {
+    return state.synthesizedObject.hashCode();
+  }
+
+  @Benchmark
+  public boolean builtInEquals(SynthesizedObjects state) {
+    return state.synthesizedObject.equals(state.anotherSynthesizedObject);
+  }
+}
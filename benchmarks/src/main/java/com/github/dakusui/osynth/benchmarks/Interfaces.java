@@ -0,0 +1,94 @@
+package com.github.dakusui.osynth.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Interfaces and objects from which objects under benchmarks are synthesized.
+ */
+public enum Interfaces {
+  ;
+
+  /**
+   * Additional interfaces, which are added to a synthesized object to see how the
+   * number of interfaces affects the performance.
+   */
+  public static final List<Class<?>> EXTRA_INTERFACES = Collections.unmodifiableList(Arrays.asList(
+      Extra0.class, Extra1.class, Extra2.class, Extra3.class,
+      Extra4.class, Extra5.class, Extra6.class, Extra7.class));
+
+  /**
+   * The main interface of a synthesized object.
+   * Each method is handled by a different mechanism of osynth.
+   */
+  public interface Calc {
+    /**
+     * Handled by a method handler given through `methodCall(...).with(...)`.
+     */
+    int handled(int value);
+
+    /**
+     * Handled by a method handler given through `methodCall(...).withIntUnary(...)`.
+     */
+    int handledWithoutBoxing(int value);
+
+    /**
+     * Handled by a fallback object.
+     */
+    int fallback(int value);
+
+    /**
+     * Handled by a method handler given through `methodCall(...).delegatingTo(...)`.
+     */
+    int delegated(int value);
+
+    default int defaultMethod(int value) {
+      return value + 1;
+    }
+  }
+
+  public interface Extra0 {
+    int extra0(int value);
+  }
+
+  public interface Extra1 {
+    int extra1(int value);
+  }
+
+  public interface Extra2 {
+    int extra2(int value);
+  }
+
+  public interface Extra3 {
+    int extra3(int value);
+  }
+
+  public interface Extra4 {
+    int extra4(int value);
+  }
+
+  public interface Extra5 {
+    int extra5(int value);
+  }
+
+  public interface Extra6 {
+    int extra6(int value);
+  }
+
+  public interface Extra7 {
+    int extra7(int value);
+  }
+
+  public static class Fallback {
+    public int fallback(int value) {
+      return value + 1;
+    }
+  }
+
+  public static class DelegationTarget {
+    public int delegated(int value) {
+      return value + 1;
+    }
+  }
+}
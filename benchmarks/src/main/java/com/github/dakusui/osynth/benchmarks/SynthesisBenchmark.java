@@ -0,0 +1,22 @@
+package com.github.dakusui.osynth.benchmarks;
+
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A benchmark for the `synthesize()` pipeline, which consists of validation,
+ * preprocessing, descriptor finalization, and object creation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SynthesisBenchmark {
+  @Benchmark
+  public SynthesizedObject synthesize(SynthesizedObjects state) {
+    return state.synthesizer().synthesize();
+  }
+}
@@ -0,0 +1,88 @@
+package com.github.dakusui.osynth.benchmarks;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.benchmarks.Interfaces.Calc;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.function.IntUnaryOperator;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.osynth.ObjectSynthesizer.nameMatchingRegex;
+
+/**
+ * A state that holds synthesized objects under benchmarks.
+ */
+@State(Scope.Benchmark)
+public class SynthesizedObjects {
+  /**
+   * The number of interfaces implemented by a synthesized object, including {@link Calc}.
+   */
+  @Param({ "1", "4", "9" })
+  public int numInterfaces;
+
+  /**
+   * The number of method handler entries that do not match any method.
+   * They are added in front of the entries actually used.
+   * Their matchers do not expose exact names, so that they are not skipped by the
+   * name index and are scanned on every lookup.
+   */
+  @Param({ "0", "8", "32" })
+  public int numHandlerEntries;
+
+  /**
+   * `proxy` for {@link java.lang.reflect.Proxy} based objects and `compiled` for
+   * objects created by `enableCompiledSynthesis()`.
+   */
+  @Param({ "proxy", "compiled" })
+  public String synthesisMode;
+
+  public int                value = 1;
+  public IntUnaryOperator   plainLambda;
+  public Calc               calc;
+  public Calc               autoLoggingCalc;
+  public Calc               allocationFreeAutoLoggingCalc;
+  public SynthesizedObject  synthesizedObject;
+  public SynthesizedObject  anotherSynthesizedObject;
+  public int                numLogEntries;
+
+  @Setup
+  public void setUp() {
+    this.plainLambda = v -> v + 1;
+    this.synthesizedObject = synthesizer().synthesize();
+    this.anotherSynthesizedObject = synthesizer().synthesize();
+    this.calc = this.synthesizedObject.castTo(Calc.class);
+    this.autoLoggingCalc = synthesizer()
+        .enableAutoLoggingWritingTo(s -> this.numLogEntries++)
+        .synthesize()
+        .castTo(Calc.class);
+    this.allocationFreeAutoLoggingCalc = synthesizer()
+        .enableAllocationFreeAutoLoggingWith(entry -> this.numLogEntries++)
+        .synthesize()
+        .castTo(Calc.class);
+  }
+
+  /**
+   * Returns a synthesizer configured by the parameters of this state.
+   * Calling `synthesize()` on the returned object gives an object, which implements {@link Calc}.
+   *
+   * @return A new synthesizer.
+   */
+  public ObjectSynthesizer synthesizer() {
+    ObjectSynthesizer ret = new ObjectSynthesizer().addInterface(Calc.class);
+    for (int i = 0; i < this.numInterfaces - 1; i++)
+      ret.addInterface(Interfaces.EXTRA_INTERFACES.get(i));
+    for (int i = 0; i < this.numHandlerEntries; i++)
+      ret.handle(methodCall(nameMatchingRegex("unused" + i)).with((synthesizedObject, args) -> null));
+    ret.handle(methodCall("handled", int.class).with((synthesizedObject, args) -> (int) args[0] + 1))
+        .handle(methodCall("handledWithoutBoxing", int.class).withIntUnary((synthesizedObject, value) -> value + 1))
+        .handle(methodCall("delegated", int.class).delegatingTo(new Interfaces.DelegationTarget()))
+        .fallbackTo(new Interfaces.Fallback());
+    if ("compiled".equals(this.synthesisMode))
+      ret.enableCompiledSynthesis();
+    return ret;
+  }
+}
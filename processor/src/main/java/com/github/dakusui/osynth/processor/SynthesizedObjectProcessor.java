@@ -0,0 +1,394 @@
+package com.github.dakusui.osynth.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+
+import static com.github.dakusui.osynth.processor.SynthesizedObjectProcessor.ANNOTATION_NAME;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * An annotation processor that generates a class for each interface annotated
+ * with `com.github.dakusui.osynth.annotations.GenerateSynthesizedObject`.
+ *
+ * The generated class calls handlers, default methods, and fallback methods directly,
+ * therefore, it does not need any reflection, proxy, or method handle at runtime.
+ */
+@SupportedAnnotationTypes(ANNOTATION_NAME)
+public class SynthesizedObjectProcessor extends AbstractProcessor {
+  static final String ANNOTATION_NAME          = "com.github.dakusui.osynth.annotations.GenerateSynthesizedObject";
+  static final String SYNTHESIZED_OBJECT_NAME  = "com.github.dakusui.osynth.core.SynthesizedObject";
+  static final String CLASS_NAME_SUFFIX        = "Synthesized";
+  private static final List<String> OBJECT_METHOD_NAMES = Arrays.asList("equals", "hashCode", "toString");
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION_NAME);
+    if (annotation == null)
+      return false;
+    for (Element each : roundEnv.getElementsAnnotatedWith(annotation)) {
+      try {
+        process(each);
+      } catch (ProcessingFailure e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+      }
+    }
+    return true;
+  }
+
+  private void process(Element element) {
+    if (element.getKind() != ElementKind.INTERFACE)
+      throw new ProcessingFailure(element, "Only an interface can be annotated with @GenerateSynthesizedObject.");
+    TypeElement interfaceElement = (TypeElement) element;
+    if (!interfaceElement.getTypeParameters().isEmpty())
+      throw new ProcessingFailure(element, "A generic interface is not supported.");
+    if (interfaceElement.getModifiers().contains(Modifier.PRIVATE))
+      throw new ProcessingFailure(element, "A private interface is not supported.");
+    AnnotationMirror annotationMirror = annotationMirrorOf(interfaceElement);
+    String className = stringValueOf(annotationMirror, "className");
+    Spec spec = new Spec(
+        interfaceElement,
+        className.isEmpty() ? interfaceElement.getSimpleName() + CLASS_NAME_SUFFIX : className,
+        typeElementValueOf(annotationMirror, "handlers", "void"),
+        typeElementValueOf(annotationMirror, "fallback", "java.lang.Object"));
+    String source = new SourceComposer(spec).compose();
+    try (PrintWriter writer = new PrintWriter(processingEnv.getFiler().createSourceFile(spec.qualifiedClassName(), interfaceElement).openWriter())) {
+      writer.print(source);
+    } catch (IOException e) {
+      throw new ProcessingFailure(element, "Failed to write " + spec.qualifiedClassName() + ": " + e.getMessage());
+    }
+  }
+
+  private AnnotationMirror annotationMirrorOf(TypeElement interfaceElement) {
+    return interfaceElement.getAnnotationMirrors().stream()
+        .filter(each -> ((TypeElement) each.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANNOTATION_NAME))
+        .findFirst()
+        .orElseThrow(() -> new ProcessingFailure(interfaceElement, "@GenerateSynthesizedObject is not found."));
+  }
+
+  private Object valueOf(AnnotationMirror annotationMirror, String name) {
+    return processingEnv.getElementUtils().getElementValuesWithDefaults(annotationMirror).entrySet().stream()
+        .filter(each -> each.getKey().getSimpleName().contentEquals(name))
+        .map(each -> each.getValue().getValue())
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException(name));
+  }
+
+  private String stringValueOf(AnnotationMirror annotationMirror, String name) {
+    return (String) valueOf(annotationMirror, name);
+  }
+
+  private TypeElement typeElementValueOf(AnnotationMirror annotationMirror, String name, String noneValue) {
+    TypeMirror type = (TypeMirror) valueOf(annotationMirror, name);
+    if (type.getKind() != TypeKind.DECLARED || ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(noneValue))
+      return null;
+    return (TypeElement) ((DeclaredType) type).asElement();
+  }
+
+  /**
+   * A specification of a class to be generated.
+   */
+  private static final class Spec {
+    final TypeElement interfaceElement;
+    final String      className;
+    final TypeElement handlers;
+    final TypeElement fallback;
+
+    Spec(TypeElement interfaceElement, String className, TypeElement handlers, TypeElement fallback) {
+      this.interfaceElement = interfaceElement;
+      this.className = className;
+      this.handlers = handlers;
+      this.fallback = fallback;
+    }
+
+    String packageName() {
+      Element ret = this.interfaceElement;
+      while (ret.getKind() != ElementKind.PACKAGE)
+        ret = ret.getEnclosingElement();
+      return ((PackageElement) ret).getQualifiedName().toString();
+    }
+
+    String qualifiedClassName() {
+      return packageName().isEmpty() ? this.className : packageName() + "." + this.className;
+    }
+  }
+
+  private final class SourceComposer {
+    final Spec          spec;
+    final String        interfaceName;
+    final StringBuilder out = new StringBuilder();
+
+    SourceComposer(Spec spec) {
+      this.spec = spec;
+      this.interfaceName = spec.interfaceElement.getQualifiedName().toString();
+    }
+
+    String compose() {
+      if (!spec.packageName().isEmpty())
+        line("package %s;", spec.packageName()).line("");
+      line("/**");
+      line(" * Generated by `%s` from `%s`.", SynthesizedObjectProcessor.class.getName(), interfaceName);
+      line(" */");
+      line("public final class %s implements %s, %s {", spec.className, interfaceName, SYNTHESIZED_OBJECT_NAME);
+      composeFields();
+      composeConstructors();
+      composeMethods();
+      composeBuiltInMethods();
+      line("}");
+      return out.toString();
+    }
+
+    private void composeFields() {
+      if (spec.fallback == null)
+        line("  private static final Object FALLBACK_OBJECT = new Object() {")
+            .line("    @Override")
+            .line("    public String toString() {")
+            .line("      return \"autoCreated:<\" + super.toString() + \">\";")
+            .line("    }")
+            .line("  };")
+            .line("");
+      else
+        line("  private final %s fallback;", spec.fallback.getQualifiedName()).line("");
+      line("  private %s.Descriptor descriptor;", SYNTHESIZED_OBJECT_NAME).line("");
+    }
+
+    private void composeConstructors() {
+      if (spec.fallback == null) {
+        line("  public %s() {", spec.className).line("  }").line("");
+        return;
+      }
+      if (hasPublicNoArgConstructor(spec.fallback))
+        line("  public %s() {", spec.className)
+            .line("    this(new %s());", spec.fallback.getQualifiedName())
+            .line("  }")
+            .line("");
+      line("  public %s(%s fallback) {", spec.className, spec.fallback.getQualifiedName())
+          .line("    this.fallback = java.util.Objects.requireNonNull(fallback);")
+          .line("  }")
+          .line("");
+    }
+
+    private void composeMethods() {
+      for (ExecutableElement each : methodsToImplement()) {
+        Optional<ExecutableElement> handler = findHandlerFor(each);
+        if (handler.isPresent()) {
+          composeMethod(each, format("%s.%s(%s)", spec.handlers.getQualifiedName(), each.getSimpleName(), arguments(each, "this")));
+          continue;
+        }
+        if (each.getModifiers().contains(Modifier.DEFAULT) || isObjectMethod(each))
+          continue;
+        if (spec.fallback != null && findFallbackMethodFor(each).isPresent()) {
+          composeMethod(each, format("this.fallback.%s(%s)", each.getSimpleName(), arguments(each, null)));
+          continue;
+        }
+        throw new ProcessingFailure(spec.interfaceElement, format(
+            "No handler, default method, or fallback method is found for '%s' in '%s'.", each, each.getEnclosingElement()));
+      }
+    }
+
+    private void composeBuiltInMethods() {
+      String interfaceSimpleNames = spec.interfaceElement.getSimpleName() + ",SynthesizedObject";
+      line("  @Override")
+          .line("  public %s.Descriptor descriptor() {", SYNTHESIZED_OBJECT_NAME)
+          .line("    %s.Descriptor ret = this.descriptor;", SYNTHESIZED_OBJECT_NAME)
+          .line("    if (ret == null)")
+          .line("      this.descriptor = ret = new %s.Descriptor(", SYNTHESIZED_OBJECT_NAME)
+          .line("          java.util.Arrays.asList(%s.class, %s.class),", interfaceName, SYNTHESIZED_OBJECT_NAME)
+          .line("          java.util.Collections.emptyList(),")
+          .line("          com.github.dakusui.osynth.core.MethodHandlerDecorator.IDENTITY,")
+          .line("          %s);", spec.fallback == null ? "FALLBACK_OBJECT" : "this.fallback")
+          .line("    return ret;")
+          .line("  }")
+          .line("");
+      if (!hasHandlerForObjectMethod("equals"))
+        line("  @Override")
+            .line("  public boolean equals(Object object) {")
+            .line("    if (this == object)")
+            .line("      return true;")
+            .line("    if (!(object instanceof %s))", SYNTHESIZED_OBJECT_NAME)
+            .line("      return false;")
+            .line("    return java.util.Objects.equals(this.descriptor(), ((%s) object).descriptor());", SYNTHESIZED_OBJECT_NAME)
+            .line("  }")
+            .line("");
+      if (!hasHandlerForObjectMethod("hashCode"))
+        line("  @Override")
+            .line("  public int hashCode() {")
+            .line("    return this.descriptor().hashCode();")
+            .line("  }")
+            .line("");
+      if (!hasHandlerForObjectMethod("toString"))
+        line("  @Override")
+            .line("  public String toString() {")
+            .line("    return \"osynth(%s):\" + this.descriptor();", interfaceSimpleNames)
+            .line("  }");
+    }
+
+    private void composeMethod(ExecutableElement method, String invocation) {
+      boolean returnsVoid = method.getReturnType().getKind() == TypeKind.VOID;
+      line("  @Override");
+      line("  public %s %s(%s)%s {",
+          method.getReturnType(),
+          method.getSimpleName(),
+          parameters(method),
+          method.getThrownTypes().isEmpty() ? "" : " throws " + method.getThrownTypes().stream().map(Object::toString).collect(joining(", ")));
+      line("    %s%s;", returnsVoid ? "" : "return ", invocation);
+      line("  }");
+      line("");
+    }
+
+    /**
+     * Returns methods of the interface and its super-interfaces, including `equals`,
+     * `hashCode`, and `toString`, which can be overridden by handlers.
+     * Methods of `SynthesizedObject` are excluded since they are built-in.
+     */
+    private List<ExecutableElement> methodsToImplement() {
+      Map<String, ExecutableElement> ret = new LinkedHashMap<>();
+      for (ExecutableElement each : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(spec.interfaceElement))) {
+        if (each.getModifiers().contains(Modifier.STATIC) || each.getModifiers().contains(Modifier.PRIVATE))
+          continue;
+        String declaringClassName = ((TypeElement) each.getEnclosingElement()).getQualifiedName().toString();
+        if (declaringClassName.equals(SYNTHESIZED_OBJECT_NAME))
+          continue;
+        if (declaringClassName.equals("java.lang.Object") && !OBJECT_METHOD_NAMES.contains(each.getSimpleName().toString()))
+          continue;
+        if (!each.getTypeParameters().isEmpty())
+          throw new ProcessingFailure(spec.interfaceElement, format("A generic method '%s' is not supported.", each));
+        ret.putIfAbsent(signatureOf(each), each);
+      }
+      return new ArrayList<>(ret.values());
+    }
+
+    private Optional<ExecutableElement> findHandlerFor(ExecutableElement method) {
+      if (spec.handlers == null)
+        return Optional.empty();
+      return ElementFilter.methodsIn(spec.handlers.getEnclosedElements()).stream()
+          .filter(each -> each.getModifiers().containsAll(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC)))
+          .filter(each -> each.getSimpleName().contentEquals(method.getSimpleName()))
+          .filter(each -> each.getParameters().size() == method.getParameters().size() + 1)
+          .filter(each -> isReceiverType(each.getParameters().get(0).asType()))
+          .filter(each -> parameterTypesMatch(each.getParameters().subList(1, each.getParameters().size()), method.getParameters()))
+          .filter(each -> returnTypeMatches(each, method))
+          .findFirst();
+    }
+
+    private Optional<ExecutableElement> findFallbackMethodFor(ExecutableElement method) {
+      return ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(spec.fallback)).stream()
+          .filter(each -> each.getModifiers().contains(Modifier.PUBLIC) && !each.getModifiers().contains(Modifier.STATIC))
+          .filter(each -> each.getSimpleName().contentEquals(method.getSimpleName()))
+          .filter(each -> parameterTypesMatch(each.getParameters(), method.getParameters()))
+          .filter(each -> returnTypeMatches(each, method))
+          .findFirst();
+    }
+
+    private boolean hasHandlerForObjectMethod(String name) {
+      return methodsToImplement().stream()
+          .filter(each -> each.getSimpleName().contentEquals(name))
+          .filter(this::isObjectMethod)
+          .anyMatch(each -> findHandlerFor(each).isPresent());
+    }
+
+    private boolean isObjectMethod(ExecutableElement method) {
+      return ((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals("java.lang.Object") ||
+          (OBJECT_METHOD_NAMES.contains(method.getSimpleName().toString()) &&
+              signatureOf(method).equals(objectMethodSignatures().get(method.getSimpleName().toString())));
+    }
+
+    private Map<String, String> objectMethodSignatures() {
+      Map<String, String> ret = new HashMap<>();
+      ElementFilter.methodsIn(processingEnv.getElementUtils().getTypeElement("java.lang.Object").getEnclosedElements()).stream()
+          .filter(each -> OBJECT_METHOD_NAMES.contains(each.getSimpleName().toString()))
+          .forEach(each -> ret.put(each.getSimpleName().toString(), signatureOf(each)));
+      return ret;
+    }
+
+    private boolean isReceiverType(TypeMirror type) {
+      return processingEnv.getTypeUtils().isSameType(type, spec.interfaceElement.asType()) ||
+          processingEnv.getTypeUtils().isSameType(type, processingEnv.getElementUtils().getTypeElement(SYNTHESIZED_OBJECT_NAME).asType());
+    }
+
+    private boolean parameterTypesMatch(List<? extends VariableElement> parameters, List<? extends VariableElement> expectedParameters) {
+      if (parameters.size() != expectedParameters.size())
+        return false;
+      for (int i = 0; i < parameters.size(); i++)
+        if (!processingEnv.getTypeUtils().isSameType(erasureOf(parameters.get(i).asType()), erasureOf(expectedParameters.get(i).asType())))
+          return false;
+      return true;
+    }
+
+    private boolean returnTypeMatches(ExecutableElement candidate, ExecutableElement method) {
+      if (method.getReturnType().getKind() == TypeKind.VOID)
+        return true;
+      return processingEnv.getTypeUtils().isAssignable(candidate.getReturnType(), method.getReturnType());
+    }
+
+    private boolean hasPublicNoArgConstructor(TypeElement typeElement) {
+      return !typeElement.getModifiers().contains(Modifier.ABSTRACT) &&
+          ElementFilter.constructorsIn(typeElement.getEnclosedElements()).stream()
+              .anyMatch(each -> each.getModifiers().contains(Modifier.PUBLIC) && each.getParameters().isEmpty());
+    }
+
+    private String signatureOf(ExecutableElement method) {
+      return method.getSimpleName() + method.getParameters().stream()
+          .map(each -> erasureOf(each.asType()).toString())
+          .collect(joining(",", "(", ")"));
+    }
+
+    private TypeMirror erasureOf(TypeMirror type) {
+      return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    private String parameters(ExecutableElement method) {
+      List<? extends VariableElement> parameters = method.getParameters();
+      List<String> ret = new ArrayList<>(parameters.size());
+      for (int i = 0; i < parameters.size(); i++) {
+        String type = parameters.get(i).asType().toString();
+        if (method.isVarArgs() && i == parameters.size() - 1)
+          type = type.substring(0, type.length() - "[]".length()) + "...";
+        ret.add(type + " arg" + i);
+      }
+      return String.join(", ", ret);
+    }
+
+    private String arguments(ExecutableElement method, String receiver) {
+      List<String> ret = new ArrayList<>();
+      if (receiver != null)
+        ret.add(receiver);
+      for (int i = 0; i < method.getParameters().size(); i++)
+        ret.add("arg" + i);
+      return String.join(", ", ret);
+    }
+
+    private SourceComposer line(String format, Object... args) {
+      out.append(format(format, args)).append(System.lineSeparator());
+      return this;
+    }
+
+    private String format(String format, Object... args) {
+      return String.format(format, args);
+    }
+  }
+
+  private static final class ProcessingFailure extends RuntimeException {
+    final transient Element element;
+
+    ProcessingFailure(Element element, String message) {
+      super(message);
+      this.element = element;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.github.dakusui.osynth.processor;
+
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SynthesizedObjectProcessorTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void givenHandlerDefaultAndFallback$whenGenerated$thenHandledInOsynthPrecedence() throws Exception {
+    ClassLoader classLoader = compile(
+        "package example;\n" +
+            "@com.github.dakusui.osynth.annotations.GenerateSynthesizedObject(handlers = Handlers.class, fallback = Fallback.class)\n" +
+            "public interface Greeter {\n" +
+            "  String hello(String name);\n" +
+            "  default String bye(String name) { return \"default:bye:\" + name; }\n" +
+            "  int count(int[] values);\n" +
+            "  void touch();\n" +
+            "}\n",
+        "package example;\n" +
+            "public class Handlers {\n" +
+            "  public static String hello(Greeter self, String name) { return \"handler:hello:\" + name; }\n" +
+            "}\n",
+        "package example;\n" +
+            "public class Fallback {\n" +
+            "  public String hello(String name) { return \"fallback:hello:\" + name; }\n" +
+            "  public int count(int[] values) { return values.length; }\n" +
+            "  public void touch() { }\n" +
+            "}\n");
+
+    Object greeter = classLoader.loadClass("example.GreeterSynthesized").getConstructor().newInstance();
+    Class<?> greeterInterface = classLoader.loadClass("example.Greeter");
+
+    assertEquals("handler:hello:world", greeterInterface.getMethod("hello", String.class).invoke(greeter, "world"));
+    assertEquals("default:bye:world", greeterInterface.getMethod("bye", String.class).invoke(greeter, "world"));
+    assertEquals(3, greeterInterface.getMethod("count", int[].class).invoke(greeter, (Object) new int[] { 1, 2, 3 }));
+    assertTrue(greeter instanceof SynthesizedObject);
+    assertEquals(Arrays.asList(greeterInterface, SynthesizedObject.class), ((SynthesizedObject) greeter).descriptor().interfaces());
+    assertSame(greeter, ((SynthesizedObject) greeter).castTo(greeterInterface));
+    assertTrue(greeter.toString().startsWith("osynth(Greeter,SynthesizedObject):"));
+  }
+
+  @Test
+  public void givenHandlerForToString$whenGenerated$thenBuiltInOverridden() throws Exception {
+    ClassLoader classLoader = compile(
+        "package example;\n" +
+            "@com.github.dakusui.osynth.annotations.GenerateSynthesizedObject(className = \"NamedImpl\", handlers = Handlers.class)\n" +
+            "public interface Named {\n" +
+            "  String name();\n" +
+            "}\n",
+        "package example;\n" +
+            "public class Handlers {\n" +
+            "  public static String name(com.github.dakusui.osynth.core.SynthesizedObject self) { return \"named\"; }\n" +
+            "  public static String toString(Named self) { return \"Named:\" + self.name(); }\n" +
+            "}\n");
+
+    Object named = classLoader.loadClass("example.NamedImpl").getConstructor().newInstance();
+
+    assertEquals("Named:named", named.toString());
+  }
+
+  @Test
+  public void givenUnresolvableMethod$whenCompiled$thenCompilationError() throws Exception {
+    List<Diagnostic<? extends JavaFileObject>> errors = compileExpectingErrors(
+        "package example;\n" +
+            "@com.github.dakusui.osynth.annotations.GenerateSynthesizedObject\n" +
+            "public interface Unresolvable {\n" +
+            "  String hello(String name);\n" +
+            "}\n");
+
+    assertEquals(1, errors.size());
+    assertTrue(errors.get(0).getMessage(null), errors.get(0).getMessage(null).contains("hello(java.lang.String)"));
+  }
+
+  private ClassLoader compile(String... sources) throws IOException, URISyntaxException {
+    File outputDirectory = temporaryFolder.newFolder("classes");
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    assertTrue(diagnostics.getDiagnostics().toString(), runCompiler(outputDirectory, diagnostics, sources));
+    return new URLClassLoader(new URL[] { outputDirectory.toURI().toURL() }, SynthesizedObject.class.getClassLoader());
+  }
+
+  private List<Diagnostic<? extends JavaFileObject>> compileExpectingErrors(String... sources) throws IOException, URISyntaxException {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    assertFalse(runCompiler(temporaryFolder.newFolder("classes"), diagnostics, sources));
+    return diagnostics.getDiagnostics().stream()
+        .filter(each -> each.getKind() == Diagnostic.Kind.ERROR)
+        .collect(Collectors.toList());
+  }
+
+  private boolean runCompiler(File outputDirectory, DiagnosticCollector<JavaFileObject> diagnostics, String... sources) throws IOException, URISyntaxException {
+    File sourceDirectory = temporaryFolder.newFolder("src");
+    List<File> sourceFiles = new ArrayList<>();
+    for (String each : sources) {
+      String packageName = each.substring("package ".length(), each.indexOf(';'));
+      String simpleName = each.replaceFirst("(?s).*public (?:interface|class) (\\w+).*", "$1");
+      Path file = sourceDirectory.toPath().resolve(packageName.replace('.', '/')).resolve(simpleName + ".java");
+      Files.createDirectories(file.getParent());
+      Files.write(file, each.getBytes(StandardCharsets.UTF_8));
+      sourceFiles.add(file.toFile());
+    }
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      JavaCompiler.CompilationTask task = compiler.getTask(
+          null,
+          fileManager,
+          diagnostics,
+          Arrays.asList("-d", outputDirectory.getPath(), "-classpath", classPathOf(SynthesizedObject.class)),
+          null,
+          fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+      task.setProcessors(Arrays.asList(new SynthesizedObjectProcessor()));
+      return task.call();
+    }
+  }
+
+  private static String classPathOf(Class<?> aClass) throws URISyntaxException {
+    return new File(aClass.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+  }
+}
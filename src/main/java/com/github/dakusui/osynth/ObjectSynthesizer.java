@@ -5,7 +5,6 @@ import com.github.dakusui.osynth.core.*;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -67,9 +66,9 @@ public class ObjectSynthesizer extends AbstractObjectSynthesizer<ObjectSynthesiz
   }
 
   public static MethodMatcher nameMatchingExactly(String methodName) {
-    return MethodMatcher.create(
+    return MethodMatcher.overrideToString(
         (mm) -> format("nameMatchingExactly[%s]", methodName),
-        method -> Objects.equals(methodName, method.getName()));
+        MethodMatcher.nameEqualTo(methodName));
   }
 
   public static MethodMatcher nameMatchingRegex(String regexForMethodName) {
@@ -80,10 +79,9 @@ public class ObjectSynthesizer extends AbstractObjectSynthesizer<ObjectSynthesiz
   }
 
   public static MethodMatcher parameterTypesMatchingExactly(Class<?>[] parameterTypes) {
-    return MethodMatcher.create(
-        (mm) -> format("parameterTypesMatchingExactly%s", Arrays.toString(parameterTypes)),
-        method -> Arrays.equals(parameterTypes, method.getParameterTypes())
-    );
+    return MethodMatcher.overrideToString(
+        (mm) -> format("parameterTypesMatchingExactly%s", mm.exactParameterTypes().orElseThrow(AssertionError::new)),
+        MethodMatcher.parameterTypesEqualTo(parameterTypes));
   }
 
   public static MethodMatcher parameterTypesMatchingLeniently(Class<?>[] parameterTypes) {
@@ -5,6 +5,9 @@ import com.github.dakusui.osynth.core.*;
 import java.lang.annotation.Retention;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -34,32 +37,68 @@ public @interface BuiltInHandlerFactory {
     }
 
     static Stream<MethodHandlerEntry> createMethodHandlersForBuiltInMethods(Supplier<SynthesizedObject.Descriptor> descriptorSupplier) {
-      return Arrays.stream(SynthesizedObject.class.getMethods())
+      return InternalUtils.BUILT_IN_METHOD_MATCHERS.entrySet().stream()
+          .map(each -> MethodHandlerEntry.create(
+              each.getValue(),
+              createBuiltInMethodHandlerFor(each.getKey(), descriptorSupplier), true));
+    }
+  }
+
+  enum InternalUtils {
+    ;
+    // Matchers are shared so that descriptors holding them can be compared structurally.
+    private static final Map<Method, MethodMatcher> BUILT_IN_METHOD_MATCHERS = builtInMethodMatchers();
+
+    private static Map<Method, MethodMatcher> builtInMethodMatchers() {
+      Map<Method, MethodMatcher> ret = new LinkedHashMap<>();
+      Arrays.stream(SynthesizedObject.class.getMethods())
           .filter(each -> each.isAnnotationPresent(BuiltInHandlerFactory.class))
-          .map((Method eachMethod) -> {
+          .forEach((Method eachMethod) -> {
             MethodSignature targetMethodSignature = MethodSignature.create(eachMethod);
-            return MethodHandlerEntry.create(
+            ret.put(eachMethod, MethodMatcher.withExactParameterTypes(eachMethod.getParameterTypes(), MethodMatcher.withExactName(eachMethod.getName(),
                 MethodMatcher.create(mm -> String.format("builtInFor:%s%s", eachMethod.getName(), Arrays.toString(eachMethod.getParameterTypes())),
-                    (Method candidate) -> targetMethodSignature.equals(MethodSignature.create(candidate))),
-                createBuiltInMethodHandlerFor(eachMethod, descriptorSupplier), true);
+                    (Method candidate) -> targetMethodSignature.equals(MethodSignature.create(candidate))))));
           });
+      return Collections.unmodifiableMap(ret);
     }
-
   }
 
   class ForToString implements MethodHandlerFactory {
     @Override
     public MethodHandler.BuiltIn create(Supplier<SynthesizedObject.Descriptor> descriptorSupplier) {
-      return (synthesizedObject, objects) -> composeFormattedString(synthesizedObject);
+      return new MethodHandler.BuiltIn() {
+        private FormattedString formattedString;
+
+        @Override
+        public Object handle(SynthesizedObject synthesizedObject, Object[] objects) {
+          // A handler may be shared by objects with different descriptors, e.g., ones from a template,
+          // therefore, the string is cached along with the descriptor from which it is composed.
+          SynthesizedObject.Descriptor descriptor = synthesizedObject.descriptor();
+          FormattedString ret = this.formattedString;
+          if (ret == null || ret.descriptor != descriptor)
+            this.formattedString = ret = new FormattedString(descriptor, composeFormattedString(descriptor));
+          return ret.value;
+        }
+      };
     }
 
-    private static String composeFormattedString(SynthesizedObject synthesizedObject) {
+    private static String composeFormattedString(SynthesizedObject.Descriptor descriptor) {
       return String.format("osynth(%s):%s",
-          synthesizedObject.descriptor().interfaces()
+          descriptor.interfaces()
               .stream()
               .map(Class::getSimpleName)
               .collect(joining(",")),
-          synthesizedObject.descriptor());
+          descriptor);
+    }
+
+    private static final class FormattedString {
+      final SynthesizedObject.Descriptor descriptor;
+      final String                       value;
+
+      FormattedString(SynthesizedObject.Descriptor descriptor, String value) {
+        this.descriptor = descriptor;
+        this.value = value;
+      }
     }
   }
 
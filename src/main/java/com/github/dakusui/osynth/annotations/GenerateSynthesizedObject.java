@@ -0,0 +1,60 @@
+package com.github.dakusui.osynth.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Requests the annotation processor in the `osynth-processor` artifact to generate
+ * a class that implements the annotated interface and {@link com.github.dakusui.osynth.core.SynthesizedObject}
+ * at compile time.
+ *
+ * A method of the generated class is handled in the same precedence as an object
+ * created by {@link com.github.dakusui.osynth.ObjectSynthesizer}.
+ *
+ * 1. A public static method of {@link GenerateSynthesizedObject#handlers()}, which has the
+ *    same name as the method, and whose first parameter is the annotated interface
+ *    or {@link com.github.dakusui.osynth.core.SynthesizedObject}, followed by the
+ *    parameters of the method.
+ * 2. A default method of the interface.
+ * 3. A public method of {@link GenerateSynthesizedObject#fallback()}, which has the same
+ *    name and parameters as the method.
+ *
+ * If none of them is found for a method, the processor reports a compilation error.
+ * Generic interfaces and generic methods are not supported.
+ */
+@Target(TYPE)
+@Retention(CLASS)
+public @interface GenerateSynthesizedObject {
+  /**
+   * A simple name of the generated class.
+   * If empty, the simple name of the annotated interface followed by `Synthesized`
+   * is used.
+   * The class is generated in the same package as the interface.
+   *
+   * @return A simple name of the generated class.
+   */
+  String className() default "";
+
+  /**
+   * A class that defines public static methods, which handle methods of the interface.
+   * `void.class` means no handler.
+   *
+   * @return A class that defines handler methods.
+   */
+  Class<?> handlers() default void.class;
+
+  /**
+   * A class of a fallback object, to which methods handled neither by a handler nor
+   * by a default method are delegated.
+   * The generated class has a constructor that takes an instance of this class.
+   * If the class has a public constructor without parameters, a constructor without
+   * parameters is also generated.
+   * `Object.class` means no fallback.
+   *
+   * @return A class of a fallback object.
+   */
+  Class<?> fallback() default Object.class;
+}
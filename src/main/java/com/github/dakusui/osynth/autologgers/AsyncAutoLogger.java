@@ -0,0 +1,436 @@
+package com.github.dakusui.osynth.autologgers;
+
+import com.github.dakusui.osynth.core.AutoLogger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.github.dakusui.pcond.forms.Predicates.greaterThan;
+import static com.github.dakusui.valid8j.Requires.requireArgument;
+import static com.github.dakusui.valid8j.Requires.requireNonNull;
+
+/**
+ * An {@link AutoLogger} that hands entries over to a background thread, which
+ * passes them to a downstream logger.
+ *
+ * Invoking threads copy an entry into a slot of a bounded, lock-free ring buffer and
+ * return immediately.
+ * The background thread takes entries out of the buffer in batches and calls the
+ * downstream logger, which typically formats and writes them.
+ * Therefore, a slow downstream logger, such as one writing to `System.err`, does not
+ * serialize the invoking threads.
+ *
+ * When the buffer is full, an entry is handled as specified by {@link OverflowPolicy}.
+ * Since entries are copied, this logger can be used with
+ * {@link AutoLogger#createAllocationFree(AutoLogger)}.
+ * A method signature string is not computed by an invoking thread, but by the
+ * background thread, unless an entry already holds one.
+ *
+ * Anything thrown by the downstream logger is counted by {@link AsyncAutoLogger#failureCount()}
+ * and does not stop the background thread.
+ * If the background thread dies nevertheless, entries are dropped instead of
+ * blocking invoking threads forever.
+ *
+ * Call {@link AsyncAutoLogger#close()} to flush remaining entries and stop the background thread.
+ *
+ * .Example
+ * [source, java]
+ * ----
+ * AsyncAutoLogger autoLogger = new AsyncAutoLogger.Builder(AbstractObjectSynthesizer.defaultLogEntryPrinter(System.err::println))
+ *     .capacity(8192)
+ *     .overflowPolicy(AsyncAutoLogger.OverflowPolicy.DROP)
+ *     .build();
+ * SynthesizedObject object = new ObjectSynthesizer()
+ *     .addInterface(A.class)
+ *     .enableAutoLoggingWith(autoLogger)
+ *     .synthesize();
+ * ----
+ */
+public class AsyncAutoLogger implements AutoLogger, AutoCloseable {
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+
+  /**
+   * Decides what happens to an entry, when the buffer does not have enough room.
+   */
+  public enum OverflowPolicy {
+    /**
+     * Discards the entry when the buffer is full.
+     */
+    DROP,
+    /**
+     * Makes the invoking thread wait until the buffer has a room.
+     * The entry is dropped if the background thread is not alive.
+     */
+    BLOCK,
+    /**
+     * Once more than half of the buffer is used, accepts only one of every
+     * `samplingInterval` entries and discards the others.
+     * An entry is discarded when the buffer is full.
+     */
+    SAMPLE
+  }
+
+  private final AutoLogger      downstream;
+  private final Record[]         records;
+  private final AtomicLongArray  publishedSequences;
+  private final int              mask;
+  private final OverflowPolicy   overflowPolicy;
+  private final int              samplingInterval;
+  private final int              batchSize;
+  private final long             idleWaitNanos;
+  private final AtomicLong       tail            = new AtomicLong(0);
+  private final AtomicLong       samplingCounter = new AtomicLong(0);
+  private final LongAdder        publishedCount  = new LongAdder();
+  private final LongAdder        droppedCount    = new LongAdder();
+  private final LongAdder        emittedCount    = new LongAdder();
+  private final LongAdder        failureCount    = new LongAdder();
+  private final Thread           consumerThread;
+  private volatile long          head            = 0;
+  /**
+   * The sequence number of the next entry to be passed to the downstream logger.
+   * Unlike `head`, it is advanced after the downstream logger returns.
+   */
+  private volatile long          processed       = 0;
+  private volatile boolean       closed          = false;
+
+  private AsyncAutoLogger(Builder builder) {
+    this.downstream = builder.downstream;
+    this.records = new Record[builder.capacity];
+    this.publishedSequences = new AtomicLongArray(builder.capacity);
+    for (int i = 0; i < builder.capacity; i++) {
+      this.records[i] = new Record();
+      this.publishedSequences.set(i, -1);
+    }
+    this.mask = builder.capacity - 1;
+    this.overflowPolicy = builder.overflowPolicy;
+    this.samplingInterval = builder.samplingInterval;
+    this.batchSize = builder.batchSize;
+    this.idleWaitNanos = builder.idleWaitNanos;
+    this.consumerThread = new Thread(this::consume, "osynth-async-autologger-" + THREAD_COUNTER.getAndIncrement());
+    this.consumerThread.setDaemon(true);
+    this.consumerThread.start();
+  }
+
+  @Override
+  public boolean isEnabledFor(Entry.Type type, Method method) {
+    return this.downstream.isEnabledFor(type, method);
+  }
+
+  @Override
+  public void log(Entry entry) {
+    // The entry is read before a slot is claimed, because a claimed slot must be published
+    // no matter what. Otherwise, the background thread would wait for it forever.
+    Entry.Type type = entry.type();
+    Object object = entry.object();
+    Method method = entry.method();
+    // Copied only when it is already computed, otherwise, it is computed on the background thread.
+    String methodSignature = entry.isMethodSignatureComputed() ? entry.methodSignature() : null;
+    Object value = entry.value();
+    long sequence = claimSequence();
+    if (sequence < 0) {
+      this.droppedCount.increment();
+      return;
+    }
+    int index = (int) (sequence & this.mask);
+    this.records[index].set(type, object, method, methodSignature, value);
+    this.publishedSequences.lazySet(index, sequence);
+    this.publishedCount.increment();
+  }
+
+  /**
+   * Returns the number of entries accepted by the buffer.
+   *
+   * @return The number of accepted entries.
+   */
+  public long publishedCount() {
+    return this.publishedCount.sum();
+  }
+
+  /**
+   * Returns the number of entries discarded because of the buffer overflow, including
+   * ones not sampled under {@link OverflowPolicy#SAMPLE}.
+   *
+   * @return The number of dropped entries.
+   */
+  public long droppedCount() {
+    return this.droppedCount.sum();
+  }
+
+  /**
+   * Returns the number of entries passed to the downstream logger.
+   *
+   * @return The number of emitted entries.
+   */
+  public long emittedCount() {
+    return this.emittedCount.sum();
+  }
+
+  /**
+   * Returns the number of entries for which the downstream logger threw an exception.
+   *
+   * @return The number of failures.
+   */
+  public long failureCount() {
+    return this.failureCount.sum();
+  }
+
+  /**
+   * Waits until all the entries accepted so far are passed to the downstream logger.
+   */
+  public void flush() {
+    long target = this.tail.get();
+    while (this.processed < target && this.consumerThread.isAlive()) {
+      LockSupport.unpark(this.consumerThread);
+      LockSupport.parkNanos(this.idleWaitNanos);
+    }
+  }
+
+  /**
+   * Passes remaining entries to the downstream logger and stops the background thread.
+   * Entries logged after this method is called are dropped.
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+    LockSupport.unpark(this.consumerThread);
+    boolean interrupted = false;
+    while (this.consumerThread.isAlive()) {
+      try {
+        this.consumerThread.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("asyncAutoLogger{capacity=%s,overflowPolicy=%s,published=%s,dropped=%s,emitted=%s,failure=%s}",
+        this.records.length, this.overflowPolicy, publishedCount(), droppedCount(), emittedCount(), failureCount());
+  }
+
+  /**
+   * Returns a sequence number of a claimed slot, or a negative value if the entry
+   * should be dropped.
+   */
+  private long claimSequence() {
+    while (true) {
+      if (this.closed)
+        return -1;
+      long sequence = this.tail.get();
+      long used = sequence - this.head;
+      if (used >= this.records.length) {
+        if (this.overflowPolicy != OverflowPolicy.BLOCK || !this.consumerThread.isAlive())
+          return -1;
+        LockSupport.unpark(this.consumerThread);
+        LockSupport.parkNanos(1_000);
+        continue;
+      }
+      if (this.overflowPolicy == OverflowPolicy.SAMPLE && used > this.records.length / 2 &&
+          this.samplingCounter.getAndIncrement() % this.samplingInterval != 0)
+        return -1;
+      if (this.tail.compareAndSet(sequence, sequence + 1))
+        return sequence;
+    }
+  }
+
+  private void consume() {
+    Record current = new Record();
+    while (true) {
+      int numConsumed = 0;
+      long sequence = this.head;
+      while (numConsumed < this.batchSize) {
+        int index = (int) (sequence & this.mask);
+        if (this.publishedSequences.get(index) != sequence)
+          break;
+        current.copyFrom(this.records[index]);
+        this.records[index].clear();
+        this.head = ++sequence;
+        emit(current);
+        this.processed = sequence;
+        numConsumed++;
+      }
+      if (numConsumed == 0) {
+        if (this.closed && this.head == this.tail.get())
+          return;
+        LockSupport.parkNanos(this.idleWaitNanos);
+      }
+    }
+  }
+
+  private void emit(Record record) {
+    try {
+      this.downstream.log(record);
+      this.emittedCount.increment();
+    } catch (Throwable e) {
+      // Even an error must not kill the background thread, otherwise, invoking threads might block forever.
+      this.failureCount.increment();
+    } finally {
+      record.clear();
+    }
+  }
+
+  /**
+   * A slot of the ring buffer, which holds a copy of an entry.
+   */
+  private static final class Record implements Entry {
+    private Type   type;
+    private Object object;
+    private Method method;
+    private String methodSignature;
+    private Object value;
+
+    void set(Type type, Object object, Method method, String methodSignature, Object value) {
+      this.type = type;
+      this.object = object;
+      this.method = method;
+      this.methodSignature = methodSignature;
+      this.value = value;
+    }
+
+    void copyFrom(Record record) {
+      set(record.type, record.object, record.method, record.methodSignature, record.value);
+    }
+
+    void clear() {
+      this.type = null;
+      this.object = null;
+      this.method = null;
+      this.methodSignature = null;
+      this.value = null;
+    }
+
+    @Override
+    public Type type() {
+      return this.type;
+    }
+
+    @Override
+    public Object object() {
+      return this.object;
+    }
+
+    @Override
+    public Method method() {
+      return this.method;
+    }
+
+    @Override
+    public String methodSignature() {
+      if (this.methodSignature == null)
+        this.methodSignature = Entry.super.methodSignature();
+      return this.methodSignature;
+    }
+
+    @Override
+    public boolean isMethodSignatureComputed() {
+      return this.methodSignature != null;
+    }
+
+    @Override
+    public Object value() {
+      return this.value;
+    }
+
+    @Override
+    public Object[] arguments() {
+      if (this.type != Type.ENTER)
+        throw new UnsupportedOperationException();
+      return (Object[]) this.value;
+    }
+
+    @Override
+    public Throwable exception() {
+      if (this.type != Type.EXCEPTION)
+        throw new UnsupportedOperationException();
+      return (Throwable) this.value;
+    }
+  }
+
+  public static class Builder {
+    private final AutoLogger     downstream;
+    private       int            capacity         = 4096;
+    private       OverflowPolicy overflowPolicy   = OverflowPolicy.DROP;
+    private       int            samplingInterval = 10;
+    private       int            batchSize        = 256;
+    private       long           idleWaitNanos    = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Creates a new builder.
+     *
+     * @param downstream A logger to which entries are passed on the background thread.
+     */
+    public Builder(AutoLogger downstream) {
+      this.downstream = requireNonNull(downstream);
+    }
+
+    /**
+     * Sets the number of entries the buffer can hold.
+     * It is rounded up to a power of two.
+     *
+     * @param capacity The capacity of the buffer.
+     * @return This object.
+     */
+    public Builder capacity(int capacity) {
+      requireArgument(capacity, greaterThan(0));
+      int rounded = Integer.highestOneBit(capacity);
+      this.capacity = rounded == capacity ? capacity : rounded << 1;
+      return this;
+    }
+
+    public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+      this.overflowPolicy = requireNonNull(overflowPolicy);
+      return this;
+    }
+
+    /**
+     * Sets the interval of sampling used by {@link OverflowPolicy#SAMPLE}.
+     *
+     * @param samplingInterval One of every `samplingInterval` entries is accepted under pressure.
+     * @return This object.
+     */
+    public Builder samplingInterval(int samplingInterval) {
+      this.samplingInterval = requireArgument(samplingInterval, greaterThan(0));
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of entries processed by the background thread at once.
+     *
+     * @param batchSize The maximum number of entries in a batch.
+     * @return This object.
+     */
+    public Builder batchSize(int batchSize) {
+      this.batchSize = requireArgument(batchSize, greaterThan(0));
+      return this;
+    }
+
+    /**
+     * Sets how long the background thread waits when there is no entry to process.
+     *
+     * @param idleWait A duration.
+     * @param unit     A unit of `idleWait`.
+     * @return This object.
+     */
+    public Builder idleWait(long idleWait, TimeUnit unit) {
+      this.idleWaitNanos = requireArgument(unit.toNanos(idleWait), greaterThan(0L));
+      return this;
+    }
+
+    /**
+     * Creates a new logger and starts its background thread.
+     *
+     * @return A new logger.
+     */
+    public AsyncAutoLogger build() {
+      return new AsyncAutoLogger(this);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.github.dakusui.osynth.autologgers;
+
+import com.github.dakusui.osynth.core.AutoLogger;
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.MethodHandlerDecorator;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.valid8j.Requires.requireArgument;
+import static com.github.dakusui.valid8j.Requires.requireNonNull;
+
+/**
+ * Method handler decorators that apply auto-logging only to some of method invocations.
+ *
+ * Whether an invocation is logged is decided before any {@link AutoLogger.Entry} is created,
+ * so an invocation that is not logged costs almost nothing.
+ * The returned decorators can be combined with other decorators through
+ * {@link MethodHandlerDecorator#andThen(MethodHandlerDecorator)} and
+ * {@link MethodHandlerDecorator#compose(MethodHandlerDecorator)}, and are applied
+ * through {@link com.github.dakusui.osynth.core.AbstractObjectSynthesizer#methodHandlerDecorator(MethodHandlerDecorator)}.
+ * Like other decorators, they are not applied to built-in or reserved methods
+ * (see {@link MethodHandlerDecorator#filterOutPredefinedMethods(MethodHandlerDecorator)}).
+ */
+public enum AutoLoggingDecorators {
+  ;
+
+  /**
+   * Returns a decorator that logs only a fraction of invocations chosen at random.
+   *
+   * @param autoLogger A logger to which entries are sent.
+   * @param fraction   A fraction of invocations to be logged, from `0.0` to `1.0`.
+   * @return A method handler decorator.
+   */
+  public static MethodHandlerDecorator sampling(AutoLogger autoLogger, double fraction) {
+    requireNonNull(autoLogger);
+    requireArgument(fraction, and(greaterThanOrEqualTo(0.0), lessThanOrEqualTo(1.0)));
+    return (method, methodHandler) -> loggingOnlyIf(
+        () -> ThreadLocalRandom.current().nextDouble() < fraction,
+        AutoLogger.create(autoLogger).apply(method, methodHandler),
+        methodHandler);
+  }
+
+  /**
+   * Returns a decorator that logs at most `maxInvocationsPerSecond` invocations of each
+   * method in a second.
+   * Note that a logged invocation produces two entries, one for entering and the other
+   * for leaving the method.
+   *
+   * The limit is shared among synthesized objects decorated by the returned decorator.
+   *
+   * @param autoLogger              A logger to which entries are sent.
+   * @param maxInvocationsPerSecond The maximum number of invocations logged per second and per method.
+   * @return A method handler decorator.
+   */
+  public static MethodHandlerDecorator rateLimited(AutoLogger autoLogger, int maxInvocationsPerSecond) {
+    requireNonNull(autoLogger);
+    requireArgument(maxInvocationsPerSecond, greaterThan(0));
+    ConcurrentMap<Method, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    return (method, methodHandler) -> loggingOnlyIf(
+        rateLimiters.computeIfAbsent(method, m -> new RateLimiter(maxInvocationsPerSecond))::tryAcquire,
+        AutoLogger.create(autoLogger).apply(method, methodHandler),
+        methodHandler);
+  }
+
+  /**
+   * Returns a decorator that logs only invocations that take `threshold` or longer.
+   * Since the latency is known only after an invocation finishes, both the entering
+   * and leaving entries of a slow invocation are logged after it finishes.
+   *
+   * @param autoLogger A logger to which entries are sent.
+   * @param threshold  A latency threshold.
+   * @param unit       A unit of `threshold`.
+   * @return A method handler decorator.
+   */
+  public static MethodHandlerDecorator latencyThreshold(AutoLogger autoLogger, long threshold, TimeUnit unit) {
+    requireNonNull(autoLogger);
+    long thresholdNanos = requireArgument(unit.toNanos(threshold), greaterThanOrEqualTo(0L));
+    return (method, methodHandler) -> (MethodHandler) (synthesizedObject, args) -> {
+      long start = System.nanoTime();
+      Object ret;
+      try {
+        ret = methodHandler.handle(synthesizedObject, args);
+      } catch (Throwable t) {
+        if (System.nanoTime() - start >= thresholdNanos) {
+          autoLogger.log(autoLogger.enter(synthesizedObject, method, args));
+          autoLogger.log(autoLogger.exception(synthesizedObject, method, t));
+        }
+        throw t;
+      }
+      if (System.nanoTime() - start >= thresholdNanos) {
+        autoLogger.log(autoLogger.enter(synthesizedObject, method, args));
+        autoLogger.log(autoLogger.leave(synthesizedObject, method, ret));
+      }
+      return ret;
+    };
+  }
+
+  private static MethodHandler loggingOnlyIf(BooleanSupplier condition, MethodHandler loggingMethodHandler, MethodHandler methodHandler) {
+    return (synthesizedObject, args) -> condition.getAsBoolean() ?
+        loggingMethodHandler.handle(synthesizedObject, args) :
+        methodHandler.handle(synthesizedObject, args);
+  }
+
+  /**
+   * A rate limiter based on fixed one-second windows.
+   *
+   * The index of the current window and the number of permits given in it are packed
+   * into one `long`, so that a new window is started and its count is reset by a
+   * single CAS.
+   * Once the limit is reached, a call only reads the state until the window ends.
+   */
+  private static final class RateLimiter {
+    private static final long ONE_SECOND_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long COUNT_MASK          = 0xFFFF_FFFFL;
+
+    private final int        maxPermitsPerSecond;
+    private final long       origin;
+    private final AtomicLong state = new AtomicLong(0);
+
+    RateLimiter(int maxPermitsPerSecond) {
+      this.maxPermitsPerSecond = maxPermitsPerSecond;
+      this.origin = System.nanoTime();
+    }
+
+    boolean tryAcquire() {
+      long window = (System.nanoTime() - this.origin) / ONE_SECOND_IN_NANOS;
+      while (true) {
+        long state = this.state.get();
+        long stateWindow = state >>> 32;
+        long count = 0;
+        if (stateWindow >= window) {
+          // Another thread may have started a newer window after this thread read the clock.
+          window = stateWindow;
+          count = state & COUNT_MASK;
+          if (count >= this.maxPermitsPerSecond)
+            return false;
+        }
+        if (this.state.compareAndSet(state, (window << 32) | (count + 1)))
+          return true;
+      }
+    }
+  }
+}
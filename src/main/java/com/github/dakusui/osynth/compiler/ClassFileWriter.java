@@ -0,0 +1,399 @@
+package com.github.dakusui.osynth.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A minimal class file writer, which supports only what the {@link SynthesizedClassCompiler}
+ * needs.
+ *
+ * Generated code must be straight-line, i.e., it must not contain any branches,
+ * because this writer doesn't compute `StackMapTable` attributes.
+ */
+final class ClassFileWriter {
+  static final int ACC_PUBLIC  = 0x0001;
+  static final int ACC_PRIVATE = 0x0002;
+  static final int ACC_FINAL   = 0x0010;
+  static final int ACC_SUPER   = 0x0020;
+
+  private static final int CLASS_FILE_MAJOR_VERSION = 52; // Java 8
+
+  private final ConstantPool      constantPool = new ConstantPool();
+  private final String            internalName;
+  private final String            superInternalName;
+  private final List<String>      interfaceInternalNames;
+  private final List<MemberEntry> fields       = new ArrayList<>();
+  private final List<MemberEntry> methods      = new ArrayList<>();
+
+  ClassFileWriter(String internalName, String superInternalName, List<String> interfaceInternalNames) {
+    this.internalName = internalName;
+    this.superInternalName = superInternalName;
+    this.interfaceInternalNames = interfaceInternalNames;
+  }
+
+  String internalName() {
+    return this.internalName;
+  }
+
+  void addField(int access, String name, String descriptor) {
+    this.fields.add(new MemberEntry(access, name, descriptor, null));
+  }
+
+  void addMethod(int access, String name, String descriptor, int maxStack, int maxLocals, Consumer<Code> body) {
+    Code code = new Code(this.constantPool);
+    body.accept(code);
+    this.methods.add(new MemberEntry(access, name, descriptor, new CodeAttribute(maxStack, maxLocals, code.toByteArray())));
+  }
+
+  byte[] toByteArray() {
+    try {
+      int thisClass = this.constantPool.classRef(this.internalName);
+      int superClass = this.constantPool.classRef(this.superInternalName);
+      int[] interfaces = this.interfaceInternalNames.stream().mapToInt(this.constantPool::classRef).toArray();
+      this.fields.forEach(each -> each.prepare(this.constantPool));
+      this.methods.forEach(each -> each.prepare(this.constantPool));
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(CLASS_FILE_MAJOR_VERSION);
+      this.constantPool.writeTo(out);
+      out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(interfaces.length);
+      for (int each : interfaces)
+        out.writeShort(each);
+      writeMembers(out, this.fields);
+      writeMembers(out, this.methods);
+      out.writeShort(0); // class attributes
+      out.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeMembers(DataOutputStream out, List<MemberEntry> members) throws IOException {
+    out.writeShort(members.size());
+    for (MemberEntry each : members)
+      each.writeTo(out);
+  }
+
+  static String internalNameOf(Class<?> aClass) {
+    return aClass.isArray() ?
+        descriptorOf(aClass) :
+        aClass.getName().replace('.', '/');
+  }
+
+  static String descriptorOf(Class<?> aClass) {
+    if (aClass.isArray())
+      return "[" + descriptorOf(aClass.getComponentType());
+    if (!aClass.isPrimitive())
+      return "L" + internalNameOf(aClass) + ";";
+    if (aClass == void.class)
+      return "V";
+    if (aClass == boolean.class)
+      return "Z";
+    if (aClass == byte.class)
+      return "B";
+    if (aClass == char.class)
+      return "C";
+    if (aClass == short.class)
+      return "S";
+    if (aClass == int.class)
+      return "I";
+    if (aClass == long.class)
+      return "J";
+    if (aClass == float.class)
+      return "F";
+    assert aClass == double.class;
+    return "D";
+  }
+
+  static String methodDescriptorOf(Class<?> returnType, Class<?>... parameterTypes) {
+    StringBuilder b = new StringBuilder("(");
+    for (Class<?> each : parameterTypes)
+      b.append(descriptorOf(each));
+    return b.append(")").append(descriptorOf(returnType)).toString();
+  }
+
+  static int slotSizeOf(Class<?> type) {
+    return type == long.class || type == double.class ? 2 : 1;
+  }
+
+  /**
+   * A builder of a method body.
+   */
+  static final class Code {
+    private static final int SIPUSH        = 0x11;
+    private static final int ILOAD         = 0x15;
+    private static final int LLOAD         = 0x16;
+    private static final int FLOAD         = 0x17;
+    private static final int DLOAD         = 0x18;
+    private static final int ALOAD         = 0x19;
+    private static final int AALOAD        = 0x32;
+    private static final int AASTORE       = 0x53;
+    private static final int POP           = 0x57;
+    private static final int DUP           = 0x59;
+    private static final int IRETURN       = 0xac;
+    private static final int LRETURN       = 0xad;
+    private static final int FRETURN       = 0xae;
+    private static final int DRETURN       = 0xaf;
+    private static final int ARETURN       = 0xb0;
+    private static final int RETURN        = 0xb1;
+    private static final int GETFIELD      = 0xb4;
+    private static final int PUTFIELD      = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC  = 0xb8;
+    private static final int ANEWARRAY     = 0xbd;
+    private static final int CHECKCAST     = 0xc0;
+    private static final int WIDE          = 0xc4;
+
+    private final ConstantPool          constantPool;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    private Code(ConstantPool constantPool) {
+      this.constantPool = constantPool;
+    }
+
+    Code load(Class<?> type, int slot) {
+      int opcode;
+      if (!type.isPrimitive())
+        opcode = ALOAD;
+      else if (type == long.class)
+        opcode = LLOAD;
+      else if (type == float.class)
+        opcode = FLOAD;
+      else if (type == double.class)
+        opcode = DLOAD;
+      else
+        opcode = ILOAD;
+      if (slot > 0xff)
+        return u1(WIDE).u1(opcode).u2(slot);
+      return u1(opcode).u1(slot);
+    }
+
+    Code returnValue(Class<?> type) {
+      if (type == void.class)
+        return u1(RETURN);
+      if (!type.isPrimitive())
+        return u1(ARETURN);
+      if (type == long.class)
+        return u1(LRETURN);
+      if (type == float.class)
+        return u1(FRETURN);
+      if (type == double.class)
+        return u1(DRETURN);
+      return u1(IRETURN);
+    }
+
+    Code pushInt(int value) {
+      assert Short.MIN_VALUE <= value && value <= Short.MAX_VALUE;
+      return u1(SIPUSH).u2(value);
+    }
+
+    Code pop() {
+      return u1(POP);
+    }
+
+    Code dup() {
+      return u1(DUP);
+    }
+
+    Code aaload() {
+      return u1(AALOAD);
+    }
+
+    Code aastore() {
+      return u1(AASTORE);
+    }
+
+    Code anewarray(Class<?> componentType) {
+      return u1(ANEWARRAY).u2(this.constantPool.classRef(internalNameOf(componentType)));
+    }
+
+    Code checkcast(Class<?> type) {
+      return u1(CHECKCAST).u2(this.constantPool.classRef(internalNameOf(type)));
+    }
+
+    Code getfield(String owner, String name, Class<?> type) {
+      return u1(GETFIELD).u2(this.constantPool.fieldRef(owner, name, descriptorOf(type)));
+    }
+
+    Code putfield(String owner, String name, Class<?> type) {
+      return u1(PUTFIELD).u2(this.constantPool.fieldRef(owner, name, descriptorOf(type)));
+    }
+
+    Code invokespecial(String owner, String name, String descriptor) {
+      return u1(INVOKESPECIAL).u2(this.constantPool.methodRef(owner, name, descriptor, false));
+    }
+
+    Code invokestatic(Class<?> owner, String name, String descriptor) {
+      return u1(INVOKESTATIC).u2(this.constantPool.methodRef(internalNameOf(owner), name, descriptor, owner.isInterface()));
+    }
+
+    Code invokevirtual(Class<?> owner, String name, String descriptor) {
+      return u1(INVOKEVIRTUAL).u2(this.constantPool.methodRef(internalNameOf(owner), name, descriptor, false));
+    }
+
+    private Code u1(int value) {
+      this.bytes.write(value);
+      return this;
+    }
+
+    private Code u2(int value) {
+      this.bytes.write((value >>> 8) & 0xff);
+      this.bytes.write(value & 0xff);
+      return this;
+    }
+
+    private byte[] toByteArray() {
+      return this.bytes.toByteArray();
+    }
+  }
+
+  private static final class CodeAttribute {
+    final int    maxStack;
+    final int    maxLocals;
+    final byte[] code;
+
+    CodeAttribute(int maxStack, int maxLocals, byte[] code) {
+      this.maxStack = maxStack;
+      this.maxLocals = maxLocals;
+      this.code = code;
+    }
+  }
+
+  private static final class MemberEntry {
+    final int           access;
+    final String        name;
+    final String        descriptor;
+    final CodeAttribute code;
+    int nameIndex;
+    int descriptorIndex;
+    int codeAttributeNameIndex;
+
+    MemberEntry(int access, String name, String descriptor, CodeAttribute code) {
+      this.access = access;
+      this.name = name;
+      this.descriptor = descriptor;
+      this.code = code;
+    }
+
+    void prepare(ConstantPool constantPool) {
+      this.nameIndex = constantPool.utf8(this.name);
+      this.descriptorIndex = constantPool.utf8(this.descriptor);
+      if (this.code != null)
+        this.codeAttributeNameIndex = constantPool.utf8("Code");
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      out.writeShort(this.access);
+      out.writeShort(this.nameIndex);
+      out.writeShort(this.descriptorIndex);
+      if (this.code == null) {
+        out.writeShort(0);
+        return;
+      }
+      out.writeShort(1);
+      out.writeShort(this.codeAttributeNameIndex);
+      out.writeInt(2 + 2 + 4 + this.code.code.length + 2 + 2);
+      out.writeShort(this.code.maxStack);
+      out.writeShort(this.code.maxLocals);
+      out.writeInt(this.code.code.length);
+      out.write(this.code.code);
+      out.writeShort(0); // exception table
+      out.writeShort(0); // attributes of the code attribute
+    }
+  }
+
+  private static final class ConstantPool {
+    private static final int CONSTANT_UTF8               = 1;
+    private static final int CONSTANT_CLASS              = 7;
+    private static final int CONSTANT_FIELDREF           = 9;
+    private static final int CONSTANT_METHODREF          = 10;
+    private static final int CONSTANT_INTERFACEMETHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE      = 12;
+
+    private final ByteArrayOutputStream bytes   = new ByteArrayOutputStream();
+    private final DataOutputStream      out     = new DataOutputStream(bytes);
+    private final Map<String, Integer>  indices = new HashMap<>();
+    private       int                   count   = 1;
+
+    int utf8(String value) {
+      return intern("utf8:" + value, () -> {
+        out.writeByte(CONSTANT_UTF8);
+        out.writeUTF(value);
+      });
+    }
+
+    int classRef(String internalName) {
+      int nameIndex = utf8(internalName);
+      return intern("class:" + internalName, () -> {
+        out.writeByte(CONSTANT_CLASS);
+        out.writeShort(nameIndex);
+      });
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+      return memberRef(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor, boolean isInterface) {
+      return memberRef(isInterface ? CONSTANT_INTERFACEMETHODREF : CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+      int classIndex = classRef(owner);
+      int nameAndTypeIndex = nameAndType(name, descriptor);
+      return intern(tag + ":" + owner + "." + name + descriptor, () -> {
+        out.writeByte(tag);
+        out.writeShort(classIndex);
+        out.writeShort(nameAndTypeIndex);
+      });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+      int nameIndex = utf8(name);
+      int descriptorIndex = utf8(descriptor);
+      return intern("nameAndType:" + name + ":" + descriptor, () -> {
+        out.writeByte(CONSTANT_NAME_AND_TYPE);
+        out.writeShort(nameIndex);
+        out.writeShort(descriptorIndex);
+      });
+    }
+
+    private int intern(String key, IoAction writer) {
+      Integer ret = this.indices.get(key);
+      if (ret != null)
+        return ret;
+      try {
+        writer.run();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      this.indices.put(key, this.count);
+      return this.count++;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      this.out.flush();
+      out.writeShort(this.count);
+      this.bytes.writeTo(out);
+    }
+
+    interface IoAction {
+      void run() throws IOException;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.github.dakusui.osynth.compiler;
+
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static com.github.dakusui.osynth.compiler.ClassFileWriter.methodDescriptorOf;
+import static com.github.dakusui.osynth.compiler.ClassFileWriter.slotSizeOf;
+
+/**
+ * Kinds of method handlers, through which a method of a class generated by
+ * {@link SynthesizedClassCompiler} calls its handler.
+ *
+ * A kind is chosen only from the signature of a method, therefore, a generated class
+ * is shared regardless of the handlers actually given.
+ * A handler that is not of the chosen kind is adapted to it by {@link HandlerKind#adapt(MethodHandler)}.
+ */
+enum HandlerKind {
+  /**
+   * Calls {@link MethodHandler.IntUnaryHandler} to {@link MethodHandler.DoubleBinaryHandler}
+   * without boxing, for a method whose signature exactly matches the handler's.
+   */
+  INT_UNARY(MethodHandler.IntUnaryHandler.class, MethodHandler.IntUnaryHandler::from, int.class, int.class),
+  INT_BINARY(MethodHandler.IntBinaryHandler.class, MethodHandler.IntBinaryHandler::from, int.class, int.class, int.class),
+  LONG_UNARY(MethodHandler.LongUnaryHandler.class, MethodHandler.LongUnaryHandler::from, long.class, long.class),
+  LONG_BINARY(MethodHandler.LongBinaryHandler.class, MethodHandler.LongBinaryHandler::from, long.class, long.class, long.class),
+  DOUBLE_UNARY(MethodHandler.DoubleUnaryHandler.class, MethodHandler.DoubleUnaryHandler::from, double.class, double.class),
+  DOUBLE_BINARY(MethodHandler.DoubleBinaryHandler.class, MethodHandler.DoubleBinaryHandler::from, double.class, double.class, double.class),
+  /**
+   * Calls {@link MethodHandler.Handler0} to {@link MethodHandler.Handler3} without an
+   * argument array.
+   */
+  ARITY0(MethodHandler.Handler0.class, MethodHandler.Handler0::from, 0),
+  ARITY1(MethodHandler.Handler1.class, MethodHandler.Handler1::from, 1),
+  ARITY2(MethodHandler.Handler2.class, MethodHandler.Handler2::from, 2),
+  ARITY3(MethodHandler.Handler3.class, MethodHandler.Handler3::from, 3),
+  /**
+   * Calls {@link MethodHandler#handle(SynthesizedObject, Object[])} with an argument array.
+   */
+  ARRAY(MethodHandler.class, Function.identity(), -1) {
+    @Override
+    boolean isApplicableTo(Method method) {
+      return true;
+    }
+
+    @Override
+    void pushArgumentsAndInvoke(ClassFileWriter.Code code, Class<?>[] parameterTypes) {
+      code.pushInt(parameterTypes.length).anewarray(Object.class);
+      int slot = 1;
+      for (int i = 0; i < parameterTypes.length; i++) {
+        code.dup().pushInt(i).load(parameterTypes[i], slot);
+        SynthesizedClassCompiler.box(code, parameterTypes[i]);
+        code.aastore();
+        slot += slotSizeOf(parameterTypes[i]);
+      }
+      code.invokestatic(Invokers.class, "invoke", methodDescriptorOf(Object.class, MethodHandler.class, SynthesizedObject.class, Object[].class));
+    }
+  };
+
+  private final Class<? extends MethodHandler>         handlerType;
+  private final Function<MethodHandler, MethodHandler> adapter;
+  private final int                                    arity;
+  private final Class<?>                               resultType;
+  /**
+   * Parameter types of a method, to which this kind is applicable, or `null` if any
+   * types are accepted as long as the number of parameters equals to `arity`.
+   */
+  private final Class<?>[]                             parameterTypes;
+
+  HandlerKind(Class<? extends MethodHandler> handlerType, Function<MethodHandler, MethodHandler> adapter, int arity) {
+    this.handlerType = handlerType;
+    this.adapter = adapter;
+    this.arity = arity;
+    this.resultType = Object.class;
+    this.parameterTypes = null;
+  }
+
+  HandlerKind(Class<? extends MethodHandler> handlerType, Function<MethodHandler, MethodHandler> adapter, Class<?> resultType, Class<?>... parameterTypes) {
+    this.handlerType = handlerType;
+    this.adapter = adapter;
+    this.arity = parameterTypes.length;
+    this.resultType = resultType;
+    this.parameterTypes = parameterTypes;
+  }
+
+  /**
+   * Returns a kind of handler, through which `method` is handled.
+   *
+   * @param method A method implemented by a generated class.
+   * @return A kind of handler.
+   */
+  static HandlerKind of(Method method) {
+    // Kinds are declared in the order of preference, and the last one is applicable to any method.
+    for (HandlerKind each : values())
+      if (each.isApplicableTo(method))
+        return each;
+    throw new AssertionError();
+  }
+
+  Class<? extends MethodHandler> handlerType() {
+    return this.handlerType;
+  }
+
+  /**
+   * Returns a type of the value left on the stack by the code emitted by
+   * {@link HandlerKind#pushArgumentsAndInvoke(ClassFileWriter.Code, Class[])}.
+   * Unless it is `Object`, it is the return type of the implemented method itself and
+   * doesn't need to be unboxed.
+   *
+   * @return A type of the value returned by a handler of this kind.
+   */
+  Class<?> resultType() {
+    return this.resultType;
+  }
+
+  /**
+   * Returns `methodHandler` as a handler of this kind.
+   *
+   * @param methodHandler A method handler.
+   * @return A handler whose class is {@link HandlerKind#handlerType()}.
+   */
+  MethodHandler adapt(MethodHandler methodHandler) {
+    return this.adapter.apply(methodHandler);
+  }
+
+  boolean isApplicableTo(Method method) {
+    if (this.parameterTypes != null)
+      return method.getReturnType() == this.resultType && Arrays.equals(method.getParameterTypes(), this.parameterTypes);
+    return method.getParameterCount() == this.arity;
+  }
+
+  /**
+   * Emits code that pushes arguments and calls a handler of this kind.
+   * When the emitted code starts, the handler and the synthesized object are on the stack,
+   * and the returned value of the handler is left on the stack as a {@link HandlerKind#resultType()}.
+   *
+   * @param code           A method body, to which the code is emitted.
+   * @param parameterTypes Parameter types of an implemented method.
+   */
+  void pushArgumentsAndInvoke(ClassFileWriter.Code code, Class<?>[] parameterTypes) {
+    // Only generic kinds box arguments, and primitive kinds are called with the parameter types as they are.
+    boolean boxing = this.parameterTypes == null;
+    int slot = 1;
+    for (Class<?> each : parameterTypes) {
+      code.load(each, slot);
+      if (boxing)
+        SynthesizedClassCompiler.box(code, each);
+      slot += slotSizeOf(each);
+    }
+    Class<?>[] invokerParameterTypes = new Class<?>[parameterTypes.length + 2];
+    invokerParameterTypes[0] = this.handlerType;
+    invokerParameterTypes[1] = SynthesizedObject.class;
+    if (boxing)
+      Arrays.fill(invokerParameterTypes, 2, invokerParameterTypes.length, Object.class);
+    else
+      System.arraycopy(parameterTypes, 0, invokerParameterTypes, 2, parameterTypes.length);
+    code.invokestatic(Invokers.class, invokerNameOf(), methodDescriptorOf(this.resultType, invokerParameterTypes));
+  }
+
+  private String invokerNameOf() {
+    return this.parameterTypes == null ?
+        "invoke" + this.arity :
+        "invoke" + this.handlerType.getSimpleName();
+  }
+}
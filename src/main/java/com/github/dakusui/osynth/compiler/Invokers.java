@@ -0,0 +1,141 @@
+package com.github.dakusui.osynth.compiler;
+
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import com.github.dakusui.osynth.exceptions.OsynthException;
+
+/**
+ * Methods called by classes generated by {@link SynthesizedClassCompiler}.
+ * Not meant to be used directly by users.
+ */
+public enum Invokers {
+  ;
+
+  /**
+   * Calls a method handler in the same manner as {@link com.github.dakusui.osynth.core.InvocationController#invoke}.
+   * That is, a checked exception thrown by the handler is wrapped by an {@link OsynthException}.
+   *
+   * @param methodHandler     A method handler to be called.
+   * @param synthesizedObject A synthesized object on which a method is invoked.
+   * @param args              Arguments of the invocation.
+   * @return A value returned by the method handler.
+   */
+  public static Object invoke(MethodHandler methodHandler, SynthesizedObject synthesizedObject, Object[] args) {
+    try {
+      return methodHandler.handle(synthesizedObject, args);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * Calls a method handler for a method without parameters.
+   *
+   * @param methodHandler     A method handler to be called.
+   * @param synthesizedObject A synthesized object on which a method is invoked.
+   * @return A value returned by the method handler.
+   * @see Invokers#invoke(MethodHandler, SynthesizedObject, Object[])
+   */
+  public static Object invoke0(MethodHandler.Handler0 methodHandler, SynthesizedObject synthesizedObject) {
+    try {
+      return methodHandler.handle(synthesizedObject);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static Object invoke1(MethodHandler.Handler1 methodHandler, SynthesizedObject synthesizedObject, Object arg0) {
+    try {
+      return methodHandler.handle(synthesizedObject, arg0);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static Object invoke2(MethodHandler.Handler2 methodHandler, SynthesizedObject synthesizedObject, Object arg0, Object arg1) {
+    try {
+      return methodHandler.handle(synthesizedObject, arg0, arg1);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static Object invoke3(MethodHandler.Handler3 methodHandler, SynthesizedObject synthesizedObject, Object arg0, Object arg1, Object arg2) {
+    try {
+      return methodHandler.handle(synthesizedObject, arg0, arg1, arg2);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * Calls a method handler for a method that takes and returns primitive values,
+   * without boxing them.
+   *
+   * @param methodHandler     A method handler to be called.
+   * @param synthesizedObject A synthesized object on which a method is invoked.
+   * @param arg0              An argument of the invocation.
+   * @return A value returned by the method handler.
+   * @see Invokers#invoke(MethodHandler, SynthesizedObject, Object[])
+   */
+  public static int invokeIntUnaryHandler(MethodHandler.IntUnaryHandler methodHandler, SynthesizedObject synthesizedObject, int arg0) {
+    try {
+      return methodHandler.handleAsInt(synthesizedObject, arg0);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static int invokeIntBinaryHandler(MethodHandler.IntBinaryHandler methodHandler, SynthesizedObject synthesizedObject, int arg0, int arg1) {
+    try {
+      return methodHandler.handleAsInt(synthesizedObject, arg0, arg1);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static long invokeLongUnaryHandler(MethodHandler.LongUnaryHandler methodHandler, SynthesizedObject synthesizedObject, long arg0) {
+    try {
+      return methodHandler.handleAsLong(synthesizedObject, arg0);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static long invokeLongBinaryHandler(MethodHandler.LongBinaryHandler methodHandler, SynthesizedObject synthesizedObject, long arg0, long arg1) {
+    try {
+      return methodHandler.handleAsLong(synthesizedObject, arg0, arg1);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static double invokeDoubleUnaryHandler(MethodHandler.DoubleUnaryHandler methodHandler, SynthesizedObject synthesizedObject, double arg0) {
+    try {
+      return methodHandler.handleAsDouble(synthesizedObject, arg0);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static double invokeDoubleBinaryHandler(MethodHandler.DoubleBinaryHandler methodHandler, SynthesizedObject synthesizedObject, double arg0, double arg1) {
+    try {
+      return methodHandler.handleAsDouble(synthesizedObject, arg0, arg1);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * Translates a throwable from a method handler in the same manner as
+   * {@link com.github.dakusui.osynth.core.InvocationController#invoke}.
+   * An error and an unchecked exception are rethrown as they are, and a checked exception
+   * is wrapped by an {@link OsynthException}.
+   *
+   * @param throwable A throwable thrown by a method handler.
+   * @return Never returns, declared only to let a caller write `throw rethrow(e)`.
+   */
+  private static RuntimeException rethrow(Throwable throwable) {
+    throw OsynthException.from(throwable.getMessage(), throwable);
+  }
+}
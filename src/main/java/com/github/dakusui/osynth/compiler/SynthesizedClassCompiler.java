@@ -0,0 +1,340 @@
+package com.github.dakusui.osynth.compiler;
+
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.dakusui.osynth.compiler.ClassFileWriter.*;
+import static com.github.dakusui.osynth.core.utils.MethodUtils.execute;
+import static com.github.dakusui.osynth.core.utils.MethodUtils.methodsToResolve;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Generates a concrete class that implements the interfaces of a synthesized object,
+ * as an alternative to {@link java.lang.reflect.Proxy}.
+ *
+ * Every method of a generated class calls its own pre-resolved {@link MethodHandler},
+ * which is stored in a final field of the class.
+ * No `Method` object lookup happens on a call.
+ * A method with up to three parameters calls its handler through an arity-specialised
+ * interface, such as {@link MethodHandler.Handler1}, without creating an argument array.
+ *
+ * A generated class is cached for each combination of a class loader and interfaces,
+ * without keeping either of them from being unloaded.
+ */
+public enum SynthesizedClassCompiler {
+  ;
+  private static final String        GENERATED_CLASS_PACKAGE = SynthesizedClassCompiler.class.getPackage().getName() + ".generated";
+  private static final String        OSYNTH_PACKAGE_PREFIX   = "com.github.dakusui.osynth.";
+  private static final AtomicInteger CLASS_COUNTER           = new AtomicInteger(0);
+
+  /**
+   * Generated classes for each class loader, keyed by the names of the interfaces.
+   * Neither a class loader nor a generated class is held strongly, because a generated class
+   * references the class loader, its interfaces and, through them, possibly other class loaders.
+   * Names are enough as keys, since interfaces must be visible from the class loader by name
+   * anyway, which is also required by {@link java.lang.reflect.Proxy}.
+   * An interface list is still compared on a hit, not to return a class for wrong interfaces.
+   */
+  private static final Map<ClassLoader, ConcurrentMap<List<String>, Reference<Class<?>>>> GENERATED_CLASSES = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Marks interfaces for which a class cannot be generated.
+   */
+  private static final Reference<Class<?>> NOT_COMPILABLE = new WeakReference<>(null);
+
+  /**
+   * Attaches a {@link CompiledClass} to its generated class, so that it lives exactly as long as the class.
+   * A value is handed over through `PENDING_COMPILED_CLASSES` right after the class is defined.
+   */
+  private static final ClassValue<CompiledClass> COMPILED_CLASSES = new ClassValue<CompiledClass>() {
+    @Override
+    protected CompiledClass computeValue(Class<?> type) {
+      return PENDING_COMPILED_CLASSES.remove(type);
+    }
+  };
+
+  private static final ConcurrentMap<Class<?>, CompiledClass> PENDING_COMPILED_CLASSES = new ConcurrentHashMap<>();
+
+  /**
+   * Returns a compiled class that implements given `interfaces`.
+   * If such a class cannot be generated, for instance, because the interfaces
+   * are not accessible from a single package, an empty optional is returned.
+   * In this case, a caller should fall back to {@link java.lang.reflect.Proxy}.
+   *
+   * A generated class is cached as long as it is alive, and the cache does not keep
+   * the `classLoader` or the interfaces from being unloaded.
+   *
+   * @param classLoader A class loader from which the interfaces are visible.
+   * @param interfaces  Interfaces to be implemented. {@link SynthesizedObject} must be included.
+   * @return A compiled class.
+   */
+  public static Optional<CompiledClass> compile(ClassLoader classLoader, Class<?>[] interfaces) {
+    if (interfaces.length == 0)
+      return Optional.empty();
+    List<Class<?>> interfaceList = Arrays.asList(interfaces.clone());
+    ConcurrentMap<List<String>, Reference<Class<?>>> generatedClasses = GENERATED_CLASSES.computeIfAbsent(classLoader, k -> new ConcurrentHashMap<>());
+    List<String> key = interfaceList.stream().map(Class::getName).collect(toList());
+    // Loops only when a class generated by another thread is collected before it is returned.
+    while (true) {
+      Reference<Class<?>> ref = generatedClasses.get(key);
+      if (ref == NOT_COMPILABLE)
+        return Optional.empty();
+      Optional<CompiledClass> ret = compiledClassOf(ref, interfaceList);
+      if (ret.isPresent())
+        return ret;
+      generatedClasses.compute(key, (k, v) -> v == NOT_COMPILABLE || compiledClassOf(v, interfaceList).isPresent() ?
+          v :
+          generate(classLoader, interfaceList)
+              .<Reference<Class<?>>>map(each -> new WeakReference<>(each.generatedClass()))
+              .orElse(NOT_COMPILABLE));
+    }
+  }
+
+  private static Optional<CompiledClass> compiledClassOf(Reference<Class<?>> ref, List<Class<?>> interfaces) {
+    Class<?> generatedClass = ref != null ? ref.get() : null;
+    if (generatedClass == null)
+      return Optional.empty();
+    CompiledClass ret = COMPILED_CLASSES.get(generatedClass);
+    return ret.interfaces.equals(interfaces) ? Optional.of(ret) : Optional.empty();
+  }
+
+  private static Optional<CompiledClass> generate(ClassLoader classLoader, List<Class<?>> interfaces) {
+    if (!interfaces.contains(SynthesizedObject.class))
+      return Optional.empty();
+    List<Method> methods = methodsToImplement(interfaces);
+    List<HandlerKind> handlerKinds = methods.stream().map(HandlerKind::of).collect(toList());
+    List<Class<?>> nonPublicClasses = nonPublicClassesReferencedBy(interfaces, methods);
+    if (!areInSamePackage(nonPublicClasses))
+      return Optional.empty();
+    // If there is a non-public class, the generated class must be defined in its package.
+    Optional<Class<?>> anchor = nonPublicClasses.stream().findFirst();
+    String className = anchor.map(SynthesizedClassCompiler::packageNameOf).orElse(GENERATED_CLASS_PACKAGE) + ".$SynthesizedObject$" + CLASS_COUNTER.getAndIncrement();
+    byte[] bytecode = generateBytecode(className.replace('.', '/'), interfaces, methods, handlerKinds);
+    try {
+      Class<?> generatedClass = anchor.isPresent() ?
+          defineClassNextTo(anchor.get(), className, bytecode) :
+          new GeneratedClassLoader(classLoader).define(className, bytecode);
+      MethodHandle constructor = MethodHandles.publicLookup()
+          .findConstructor(generatedClass, methodType(void.class, MethodHandler[].class))
+          .asType(methodType(Object.class, MethodHandler[].class));
+      PENDING_COMPILED_CLASSES.put(generatedClass, new CompiledClass(generatedClass, interfaces, methods, handlerKinds, constructor));
+      return Optional.of(COMPILED_CLASSES.get(generatedClass));
+    } catch (ReflectiveOperationException | SecurityException | IllegalAccessError | NoClassDefFoundError e) {
+      // Only failures because the interfaces are not accessible or visible from where the class is defined.
+      // Other errors, such as a `VerifyError` or a `ClassFormatError`, mean a bug in the generator.
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns methods that a generated class should implement, in a stable order.
+   * Methods are identified by their names and JVM descriptors.
+   */
+  private static List<Method> methodsToImplement(List<Class<?>> interfaces) {
+    Map<String, Method> ret = new LinkedHashMap<>();
+    for (Method each : methodsToResolve(interfaces))
+      ret.putIfAbsent(keyOf(each), each);
+    return unmodifiableList(new ArrayList<>(ret.values()));
+  }
+
+  private static String keyOf(Method method) {
+    return method.getName() + methodDescriptorOf(method.getReturnType(), method.getParameterTypes());
+  }
+
+  private static List<Class<?>> nonPublicClassesReferencedBy(List<Class<?>> interfaces, List<Method> methods) {
+    Set<Class<?>> referencedClasses = new LinkedHashSet<>(interfaces);
+    methods.forEach(each -> referencedClasses.add(elementTypeOf(each.getReturnType())));
+    List<Class<?>> ret = new ArrayList<>();
+    for (Class<?> each : referencedClasses)
+      if (!each.isPrimitive() && !Modifier.isPublic(each.getModifiers()))
+        ret.add(each);
+    return ret;
+  }
+
+  private static boolean areInSamePackage(List<Class<?>> classes) {
+    return classes.stream()
+        .allMatch(each -> Objects.equals(packageNameOf(each), packageNameOf(classes.get(0))) &&
+            each.getClassLoader() == classes.get(0).getClassLoader());
+  }
+
+  private static Class<?> elementTypeOf(Class<?> type) {
+    Class<?> ret = type;
+    while (ret.isArray())
+      ret = ret.getComponentType();
+    return ret;
+  }
+
+  private static String packageNameOf(Class<?> aClass) {
+    String name = aClass.getName();
+    return name.substring(0, Math.max(0, name.lastIndexOf('.')));
+  }
+
+  private static byte[] generateBytecode(String internalName, List<Class<?>> interfaces, List<Method> methods, List<HandlerKind> handlerKinds) {
+    List<String> interfaceNames = new ArrayList<>();
+    interfaces.forEach(each -> interfaceNames.add(internalNameOf(each)));
+    ClassFileWriter writer = new ClassFileWriter(internalName, internalNameOf(Object.class), interfaceNames);
+    for (int i = 0; i < methods.size(); i++)
+      writer.addField(ACC_PRIVATE | ACC_FINAL, handlerFieldName(i), descriptorOf(handlerKinds.get(i).handlerType()));
+    writer.addMethod(ACC_PUBLIC, "<init>", methodDescriptorOf(void.class, MethodHandler[].class), 3, 2, code -> {
+      code.load(Object.class, 0).invokespecial(internalNameOf(Object.class), "<init>", methodDescriptorOf(void.class));
+      for (int i = 0; i < methods.size(); i++)
+        code.load(Object.class, 0).load(Object.class, 1).pushInt(i).aaload()
+            .checkcast(handlerKinds.get(i).handlerType())
+            .putfield(internalName, handlerFieldName(i), handlerKinds.get(i).handlerType());
+      code.returnValue(void.class);
+    });
+    for (int i = 0; i < methods.size(); i++)
+      addDispatchingMethod(writer, methods.get(i), handlerKinds.get(i), handlerFieldName(i));
+    return writer.toByteArray();
+  }
+
+  private static void addDispatchingMethod(ClassFileWriter writer, Method method, HandlerKind handlerKind, String handlerFieldName) {
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    Class<?> returnType = method.getReturnType();
+    int maxLocals = 1;
+    for (Class<?> each : parameterTypes)
+      maxLocals += slotSizeOf(each);
+    writer.addMethod(ACC_PUBLIC, method.getName(), methodDescriptorOf(returnType, parameterTypes), 7, maxLocals, code -> {
+      code.load(Object.class, 0).getfield(writer.internalName(), handlerFieldName, handlerKind.handlerType());
+      code.load(Object.class, 0);
+      handlerKind.pushArgumentsAndInvoke(code, parameterTypes);
+      if (returnType == void.class)
+        code.pop();
+      else if (handlerKind.resultType() == Object.class)
+        unbox(code, returnType);
+      code.returnValue(returnType);
+    });
+  }
+
+  static void box(ClassFileWriter.Code code, Class<?> type) {
+    if (!type.isPrimitive())
+      return;
+    Class<?> wrapper = wrapperOf(type);
+    code.invokestatic(wrapper, "valueOf", methodDescriptorOf(wrapper, type));
+  }
+
+  private static void unbox(ClassFileWriter.Code code, Class<?> type) {
+    if (type == Object.class)
+      return;
+    if (!type.isPrimitive()) {
+      code.checkcast(type);
+      return;
+    }
+    Class<?> wrapper = wrapperOf(type);
+    code.checkcast(wrapper).invokevirtual(wrapper, type.getName() + "Value", methodDescriptorOf(type));
+  }
+
+  private static Class<?> wrapperOf(Class<?> primitiveType) {
+    return methodType(primitiveType).wrap().returnType();
+  }
+
+  private static String handlerFieldName(int index) {
+    return "h" + index;
+  }
+
+  private static Class<?> defineClassNextTo(Class<?> anchor, String className, byte[] bytecode) throws ReflectiveOperationException {
+    try {
+      try {
+        // Java 9 or later
+        Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        Method defineClass = MethodHandles.Lookup.class.getMethod("defineClass", byte[].class);
+        return (Class<?>) defineClass.invoke(privateLookupIn.invoke(null, anchor, MethodHandles.lookup()), (Object) bytecode);
+      } catch (NoSuchMethodException e) {
+        // Java 8
+        Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class, int.class, int.class);
+        defineClass.setAccessible(true);
+        return (Class<?>) defineClass.invoke(anchor.getClassLoader(), className, bytecode, 0, bytecode.length);
+      }
+    } catch (InvocationTargetException e) {
+      // Lets a caller tell an error from the class definition, e.g., a `LinkageError`.
+      if (e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw e;
+    }
+  }
+
+  /**
+   * A class generated by the {@link SynthesizedClassCompiler}.
+   */
+  public static final class CompiledClass {
+    private final Class<?>          generatedClass;
+    private final List<Class<?>>    interfaces;
+    private final List<Method>      methods;
+    private final List<HandlerKind> handlerKinds;
+    private final MethodHandle      constructor;
+
+    private CompiledClass(Class<?> generatedClass, List<Class<?>> interfaces, List<Method> methods, List<HandlerKind> handlerKinds, MethodHandle constructor) {
+      this.generatedClass = generatedClass;
+      this.interfaces = interfaces;
+      this.methods = methods;
+      this.handlerKinds = handlerKinds;
+      this.constructor = constructor;
+    }
+
+    /**
+     * Returns methods implemented by the generated class.
+     * A method handler array given to {@link CompiledClass#newInstance(MethodHandler[])}
+     * must be in the same order as this list.
+     *
+     * @return Methods implemented by the generated class.
+     */
+    public List<Method> methods() {
+      return this.methods;
+    }
+
+    public Class<?> generatedClass() {
+      return this.generatedClass;
+    }
+
+    /**
+     * Creates a new instance of the generated class.
+     * A handler that is not of the interface through which the generated class calls
+     * it is adapted, e.g., a plain {@link MethodHandler} for a method with one parameter
+     * is wrapped by a {@link MethodHandler.Handler1}.
+     *
+     * @param methodHandlers Method handlers for {@link CompiledClass#methods()}.
+     * @return A new instance.
+     */
+    public SynthesizedObject newInstance(MethodHandler[] methodHandlers) {
+      assert methodHandlers.length == this.methods.size();
+      MethodHandler[] adaptedMethodHandlers = new MethodHandler[methodHandlers.length];
+      for (int i = 0; i < methodHandlers.length; i++)
+        adaptedMethodHandlers[i] = this.handlerKinds.get(i).adapt(methodHandlers[i]);
+      return execute(() -> (SynthesizedObject) (Object) this.constructor.invokeExact(adaptedMethodHandlers));
+    }
+  }
+
+  private static final class GeneratedClassLoader extends ClassLoader {
+    GeneratedClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String className, byte[] bytecode) {
+      return defineClass(className, bytecode, 0, bytecode.length);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      // Makes osynth's classes visible even if they are not from the parent.
+      if (name.startsWith(OSYNTH_PACKAGE_PREFIX))
+        return Class.forName(name, false, SynthesizedClassCompiler.class.getClassLoader());
+      return super.findClass(name);
+    }
+  }
+}
@@ -1,15 +1,21 @@
 package com.github.dakusui.osynth.core;
 
 import com.github.dakusui.osynth.core.utils.AssertionUtils;
+import com.github.dakusui.osynth.core.utils.ClassMetadata;
 import com.github.dakusui.osynth.exceptions.ValidationException;
+import com.github.dakusui.osynth.invocationcontrollers.CompiledInvocationController;
+import com.github.dakusui.osynth.invocationcontrollers.PreResolvedInvocationController;
 import com.github.dakusui.osynth.invocationcontrollers.StandardInvocationController;
+import com.github.dakusui.osynth.metrics.MethodMetricsCollector;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.lang.reflect.Proxy;
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -18,6 +24,7 @@ import java.util.stream.Collectors;
 
 import static com.github.dakusui.osynth.annotations.BuiltInHandlerFactory.MethodHandlerFactory.createMethodHandlersForBuiltInMethods;
 import static com.github.dakusui.osynth.core.AbstractObjectSynthesizer.InternalUtils.validateValue;
+import static com.github.dakusui.osynth.core.MethodHandlerDecorator.chainMethodHandlerDecorators;
 import static com.github.dakusui.osynth.core.MethodHandlerDecorator.filterOutPredefinedMethods;
 import static com.github.dakusui.osynth.core.SynthesizedObject.RESERVED_METHODS;
 import static com.github.dakusui.osynth.core.utils.AssertionUtils.*;
@@ -36,6 +43,11 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
       return "autoCreated:<" + super.toString() + ">";
     }
   };
+  /**
+   * The factory set by {@link AbstractObjectSynthesizer#handleMethodsWithSignatureMatching()},
+   * whose semantics {@link SynthesizerTemplate} follows.
+   */
+  private static final   InvocationControllerFactory                   DEFAULT_INVOCATION_CONTROLLER_FACTORY = objectSynthesizer -> new StandardInvocationController(objectSynthesizer.finalizedDescriptor());
   protected final        SynthesizedObject.Descriptor.Builder          descriptorBuilder;
   private final          AtomicReference<SynthesizedObject.Descriptor> finalizedDescriptor     = new AtomicReference<>(null);
   private                Validator                                     validator;
@@ -88,6 +100,16 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
 
   }
 
+  /**
+   * Makes this synthesizer validate descriptors with {@link Validator#LIGHTWEIGHT},
+   * which is meant for production use, where objects are synthesized repeatedly.
+   *
+   * @return This object.
+   */
+  public O enableLightweightValidation() {
+    return this.validateWith(Validator.LIGHTWEIGHT);
+  }
+
   public O disableValidation() {
     return this.validateWith(Validator.PASS_THROUGH);
   }
@@ -142,8 +164,74 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
     return this.methodHandlerDecorator(AutoLogger.create(autoLogger));
   }
 
+  /**
+   * Enables auto-logging that does not allocate objects on each method call.
+   * An entry passed to the `autoLogger` is reused after {@link AutoLogger#log(AutoLogger.Entry)}
+   * returns, thus it must not be kept by the logger.
+   *
+   * @param autoLogger A logger to which entries are sent.
+   * @return This object.
+   * @see AutoLogger#createAllocationFree(AutoLogger)
+   */
+  public O enableAllocationFreeAutoLoggingWith(AutoLogger autoLogger) {
+    return this.methodHandlerDecorator(AutoLogger.createAllocationFree(autoLogger));
+  }
+
+  /**
+   * Makes synthesized objects record call counts, error counts, and latencies of their
+   * methods into the given `collector`.
+   * The collector's decorator is chained after the current method handler decorator,
+   * therefore, call this method after configuring other decorators, such as auto-logging.
+   *
+   * @param collector A collector to which metrics are recorded.
+   * @return This object.
+   * @see MethodMetricsCollector#snapshot()
+   */
+  public O enableMetricsWith(MethodMetricsCollector collector) {
+    return this.methodHandlerDecorator(chainMethodHandlerDecorators(this.descriptorBuilder.methodHandlerDecorator(), collector.decorator()));
+  }
+
   public O handleMethodsWithSignatureMatching() {
-    return this.createInvocationControllerWith(objectSynthesizer -> new StandardInvocationController(objectSynthesizer.finalizedDescriptor()));
+    return this.createInvocationControllerWith(DEFAULT_INVOCATION_CONTROLLER_FACTORY);
+  }
+
+  /**
+   * Makes this synthesizer resolve method handlers for all the methods of the
+   * interfaces when an object is synthesized, instead of on the first call of each method.
+   *
+   * @return This object.
+   * @see AbstractObjectSynthesizer#enableEagerResolution(boolean)
+   */
+  public O enableEagerResolution() {
+    return this.enableEagerResolution(false);
+  }
+
+  /**
+   * Makes this synthesizer resolve method handlers for all the methods of the
+   * interfaces when an object is synthesized.
+   * If a method that cannot be handled by anything is found, a {@link ValidationException}
+   * is thrown by {@link AbstractObjectSynthesizer#synthesize()}.
+   *
+   * @param parallel Resolves method handlers in parallel, if `true`.
+   * @return This object.
+   * @see PreResolvedInvocationController
+   */
+  public O enableEagerResolution(boolean parallel) {
+    return this.createInvocationControllerWith(objectSynthesizer -> new PreResolvedInvocationController(objectSynthesizer.finalizedDescriptor(), parallel));
+  }
+
+  /**
+   * Makes this synthesizer create an instance of a generated class instead of a
+   * {@link java.lang.reflect.Proxy}.
+   * Method handlers are resolved when an object is synthesized and each method of
+   * the generated class calls its handler directly.
+   * If a class cannot be generated for the interfaces, a proxy is created as usual.
+   *
+   * @return This object.
+   * @see CompiledInvocationController
+   */
+  public O enableCompiledSynthesis() {
+    return this.createInvocationControllerWith(objectSynthesizer -> new CompiledInvocationController(objectSynthesizer.finalizedDescriptor()));
   }
 
   public SynthesizedObject synthesize(Object fallbackObject) {
@@ -151,15 +239,67 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
   }
 
   public SynthesizedObject synthesize() {
-    finalizeDescriptor(
-        preprocessDescriptor(
-            validateDescriptor(
-                this.descriptorBuilder.methodHandlerDecorator(
-                        filterOutPredefinedMethods(this.descriptorBuilder.methodHandlerDecorator()))
-                    .build())));
+    finalizeDescriptor();
     return (SynthesizedObject) InternalUtils.createProxy(this);
   }
 
+  /**
+   * Creates a template, from which objects that differ only in their fallback objects
+   * are instantiated without going through validation and preprocessing again.
+   * The descriptor of this synthesizer is finalized by this method, as is done by
+   * {@link AbstractObjectSynthesizer#synthesize()}, and the fallback object given to
+   * this synthesizer is used for the validation.
+   *
+   * Objects instantiated from a template handle methods in the same way as
+   * {@link AbstractObjectSynthesizer#handleMethodsWithSignatureMatching()}, which is the
+   * default.
+   * Since a template doesn't create an invocation controller for each object, other
+   * invocation controllers, e.g., ones set by {@link AbstractObjectSynthesizer#enableCompiledSynthesis()}
+   * or {@link AbstractObjectSynthesizer#createInvocationControllerWith(InvocationControllerFactory)},
+   * are not supported.
+   *
+   * @return A new template.
+   * @throws IllegalStateException An invocation controller other than the default one is configured.
+   * @see SynthesizerTemplate#instantiate(Object)
+   */
+  public SynthesizerTemplate toTemplate() {
+    if (this.invocationControllerFactory != DEFAULT_INVOCATION_CONTROLLER_FACTORY)
+      throw new IllegalStateException(
+          "A template doesn't support an invocation controller other than the default one, " +
+              "e.g., ones enabled by enableCompiledSynthesis() or enableEagerResolution(): " + this.invocationControllerFactory);
+    finalizeDescriptor();
+    return new SynthesizerTemplate(this.classLoader, this.finalizedDescriptor());
+  }
+
+  /**
+   * Synthesizes objects, each of which has an element of `fallbackObjects` as its
+   * fallback object, in parallel on the common fork-join pool.
+   *
+   * @param fallbackObjects Fallback objects of the synthesized objects.
+   * @return Synthesized objects in the same order as `fallbackObjects`.
+   * @see AbstractObjectSynthesizer#synthesizeAll(Collection, Executor)
+   */
+  public List<SynthesizedObject> synthesizeAll(Collection<?> fallbackObjects) {
+    return this.synthesizeAll(fallbackObjects, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Synthesizes objects, each of which has an element of `fallbackObjects` as its
+   * fallback object, in parallel on the given `executor`.
+   * The descriptor is validated and preprocessed only once through {@link AbstractObjectSynthesizer#toTemplate()},
+   * therefore, the same notes as the method apply.
+   * E.g., an `IllegalStateException` is thrown if an invocation controller other than
+   * the default one is configured.
+   *
+   * @param fallbackObjects Fallback objects of the synthesized objects.
+   * @param executor        An executor by which objects are created.
+   * @return Synthesized objects in the same order as `fallbackObjects`.
+   * @see SynthesizerTemplate#instantiateAll(Collection, Executor)
+   */
+  public List<SynthesizedObject> synthesizeAll(Collection<?> fallbackObjects, Executor executor) {
+    return this.toTemplate().instantiateAll(fallbackObjects, executor);
+  }
+
   public Preprocessor preprocessor() {
     return this.preprocessor;
   }
@@ -181,6 +321,15 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
     return finalizedDescriptor.get() != null;
   }
 
+  private void finalizeDescriptor() {
+    finalizeDescriptor(
+        preprocessDescriptor(
+            validateDescriptor(
+                this.descriptorBuilder.methodHandlerDecorator(
+                        filterOutPredefinedMethods(this.descriptorBuilder.methodHandlerDecorator()))
+                    .build())));
+  }
+
   private void finalizeDescriptor(SynthesizedObject.Descriptor descriptor) {
     requireState(this.isDescriptorFinalized(), isFalse());
     this.finalizedDescriptor.set(descriptor);
@@ -188,12 +337,7 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
 
   private SynthesizedObject.Descriptor validateDescriptor(SynthesizedObject.Descriptor descriptor) {
     requireState(this.validator, isNotNull());
-    SynthesizedObject.Descriptor ret = this.validator.apply(this, descriptor);
-    ensure(ret, predicate("Validation must not change the content of the descriptor.", allOf(
-        transform(descriptorInterfaces()).check(isEqualTo(descriptor.interfaces())),
-        transform(descriptorMethodHandlerEntries()).check(isEqualTo(descriptor.methodHandlerEntries())),
-        transform(descriptorFallbackObject()).check(isEqualTo(descriptor.fallbackObject())))));
-    return ret;
+    return InternalUtils.ensureUnchangedByValidation(this.validator.apply(this, descriptor), descriptor);
   }
 
   private SynthesizedObject.Descriptor preprocessDescriptor(SynthesizedObject.Descriptor descriptor) {
@@ -208,7 +352,7 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
    * @param out A consumer log records sent to.
    * @return A default log entry printer instance.
    */
-  static AutoLogger defaultLogEntryPrinter(Consumer<String> out) {
+  public static AutoLogger defaultLogEntryPrinter(Consumer<String> out) {
     return entry -> {
       out.accept(InternalUtils.formatLogEntry(entry));
       if (entry.type() == AutoLogger.Entry.Type.EXCEPTION) {
@@ -222,13 +366,42 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
 
   enum InternalUtils {
     ;
+    /**
+     * Returns `ret` if it is the same as `descriptor`, which is the case for all the
+     * validators in this library, without building a predicate.
+     * Otherwise, checks if the validation did not change the content of `descriptor`.
+     */
+    static SynthesizedObject.Descriptor ensureUnchangedByValidation(SynthesizedObject.Descriptor ret, SynthesizedObject.Descriptor descriptor) {
+      if (ret == descriptor)
+        return ret;
+      return ensure(ret, predicate("Validation must not change the content of the descriptor.", allOf(
+          transform(descriptorInterfaces()).check(isEqualTo(descriptor.interfaces())),
+          transform(descriptorMethodHandlerEntries()).check(isEqualTo(descriptor.methodHandlerEntries())),
+          transform(descriptorFallbackObject()).check(isEqualTo(descriptor.fallbackObject())))));
+    }
+
+    /**
+     * Tells if `methodHandlerEntry` does not match any of reserved methods.
+     * A verdict is remembered by an entry created by {@link MethodHandlerEntry#create(MethodMatcher, MethodHandler, boolean)}
+     * itself, without a shared cache, and computed every time for other entries.
+     */
+    static boolean respectsReservedMethods(MethodHandlerEntry methodHandlerEntry) {
+      if (methodHandlerEntry instanceof StandardMethodHandlerEntry)
+        return ((StandardMethodHandlerEntry) methodHandlerEntry).respectsReservedMethods();
+      return computeRespectsReservedMethods(methodHandlerEntry);
+    }
+
+    static boolean computeRespectsReservedMethods(MethodHandlerEntry methodHandlerEntry) {
+      for (Method each : RESERVED_METHODS)
+        if (methodHandlerEntry.matcher().test(each))
+          return false;
+      return true;
+    }
 
     static Object createProxy(AbstractObjectSynthesizer<?> objectSynthesizer) {
       SynthesizedObject.Descriptor descriptor = objectSynthesizer.finalizedDescriptor();
-      return Proxy.newProxyInstance(
-          objectSynthesizer.classLoader,
-          descriptor.interfaces().toArray(new Class[0]),
-          objectSynthesizer.invocationControllerFactory.apply(objectSynthesizer));
+      return objectSynthesizer.invocationControllerFactory.apply(objectSynthesizer)
+          .createProxy(objectSynthesizer.classLoader, descriptor.interfaces().toArray(new Class[0]));
     }
 
     public static List<Object> reservedMethodMisOverridings(Collection<MethodHandlerEntry> methodHandlerEntries) {
@@ -262,7 +435,7 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
           "%-10s class:<%s> method:<%s> object:<%10s>  %s:<%s>",
           logEntry.type() + ":",
           logEntry.method().getDeclaringClass().getSimpleName(),
-          MethodSignature.create(logEntry.method()),
+          logEntry.methodSignature(),
           formatObject(logEntry.object(), 20),
           valueType,
           formatObject(logEntry.value(), 80));
@@ -328,6 +501,20 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
       return descriptor;
     });
 
+    /**
+     * A validator that checks the same as {@link Validator#DEFAULT} with plain Java code.
+     * A verdict for each method handler entry is remembered, therefore, synthesizing
+     * objects with the same entries repeatedly does not validate them again.
+     * A message is composed only on a failure.
+     */
+    Validator LIGHTWEIGHT = toNamed("lightweightValidator", (objectSynthesizer, descriptor) -> {
+      List<MethodHandlerEntry> methodHandlerEntries = Objects.requireNonNull(descriptor).methodHandlerEntries();
+      for (MethodHandlerEntry each : methodHandlerEntries)
+        if (!InternalUtils.respectsReservedMethods(each))
+          throw new ValidationException(messageForReservedMethodOverridingValidationFailure(InternalUtils.reservedMethodMisOverridings(methodHandlerEntries)));
+      return descriptor;
+    });
+
     Validator ENFORCE_NO_DUPLICATION = toNamed("noDuplicationEnforcingValidator", (objectSynthesizer, descriptor) -> {
       require(objectSynthesizer, isNotNull());
       require(descriptor, isNotNull());
@@ -341,11 +528,7 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
       return toNamed("validatorSequence:" + Arrays.toString(validators), (objectSynthesizer, descriptor) -> {
         SynthesizedObject.Descriptor ret = descriptor;
         for (Validator each : validators) {
-          ret = requireNonNull(each).apply(objectSynthesizer, descriptor);
-          ensure(ret, predicate("Validation must not change the content of the descriptor.", allOf(
-              transform(descriptorInterfaces()).check(isEqualTo(descriptor.interfaces())),
-              transform(descriptorMethodHandlerEntries()).check(isEqualTo(descriptor.methodHandlerEntries())),
-              transform(descriptorFallbackObject()).check(isEqualTo(descriptor.fallbackObject())))));
+          ret = InternalUtils.ensureUnchangedByValidation(requireNonNull(each).apply(objectSynthesizer, descriptor), descriptor);
         }
         return ret;
       });
@@ -393,7 +576,7 @@ public abstract class AbstractObjectSynthesizer<O extends AbstractObjectSynthesi
     Preprocessor INCLUDE_INTERFACES_FROM_FALLBACK = toNamed("interfacesFromFallback", (objectSynthesizer, descriptor) -> {
       SynthesizedObject.Descriptor.Builder builder = new SynthesizedObject.Descriptor.Builder(descriptor);
       Set<Class<?>> interfacesInOriginalDescriptor = new HashSet<>(descriptor.interfaces());
-      Arrays.stream(descriptor.fallbackObject().getClass().getInterfaces())
+      ClassMetadata.of(descriptor.fallbackObject().getClass()).interfaces().stream()
           .filter(eachInterfaceInFallback -> !interfacesInOriginalDescriptor.contains(eachInterfaceInFallback))
           .forEach(builder::addInterface);
       return builder.build();
@@ -19,6 +19,51 @@ public interface AutoLogger {
     };
   }
 
+  /**
+   * Returns a method handler decorator that logs method invocations without allocating
+   * objects on each call.
+   *
+   * Unlike {@link AutoLogger#create(AutoLogger)}, entries are not created by
+   * {@link AutoLogger#enter(Object, Method, Object[])} and its friends.
+   * Instead, entries confined to the invoking thread are reused, and their
+   * {@link Entry#methodSignature()} strings are computed only once per method when the
+   * decorator is applied.
+   * An entry given to {@link AutoLogger#log(Entry)} is valid only during the call,
+   * therefore the `autoLogger` must not keep it.
+   * {@link AutoLogger#isEnabledFor(Entry.Type, Method)} is checked before an entry is filled.
+   *
+   * @param autoLogger A logger to which entries are sent.
+   * @return A method handler decorator.
+   */
+  static MethodHandlerDecorator createAllocationFree(AutoLogger autoLogger) {
+    return (method, methodHandler) -> {
+      String methodSignature = MethodSignature.create(method).toString();
+      boolean enterEnabled = autoLogger.isEnabledFor(Entry.Type.ENTER, method);
+      boolean leaveEnabled = autoLogger.isEnabledFor(Entry.Type.LEAVE, method);
+      boolean exceptionEnabled = autoLogger.isEnabledFor(Entry.Type.EXCEPTION, method);
+      return (MethodHandler) (synthesizedObject, args) -> {
+        ReusableEntry entry = ReusableEntry.acquire();
+        try {
+          if (enterEnabled)
+            autoLogger.log(entry.set(Entry.Type.ENTER, synthesizedObject, method, methodSignature, args));
+          Object ret;
+          try {
+            ret = methodHandler.handle(synthesizedObject, args);
+          } catch (Throwable t) {
+            if (exceptionEnabled)
+              autoLogger.log(entry.set(Entry.Type.EXCEPTION, synthesizedObject, method, methodSignature, t));
+            throw t;
+          }
+          if (leaveEnabled)
+            autoLogger.log(entry.set(Entry.Type.LEAVE, synthesizedObject, method, methodSignature, ret));
+          return ret;
+        } finally {
+          entry.release();
+        }
+      };
+    };
+  }
+
   interface Entry {
 
 
@@ -49,6 +94,27 @@ public interface AutoLogger {
 
     Object value();
 
+    /**
+     * Returns a string that represents the signature of the method, such as `aMethod(String)`.
+     *
+     * @return A string representation of the method signature.
+     */
+    default String methodSignature() {
+      return MethodSignature.create(method()).toString();
+    }
+
+    /**
+     * Tells if {@link Entry#methodSignature()} of this entry returns a string that is
+     * already computed, e.g., by {@link AutoLogger#createAllocationFree(AutoLogger)}.
+     * A logger that hands an entry over to another thread may use this to decide
+     * whether to copy the string or to let the other thread compute it.
+     *
+     * @return `true` if the method signature string is already computed.
+     */
+    default boolean isMethodSignatureComputed() {
+      return false;
+    }
+
     /**
      * A default implementation of this method is provided to save implementation
      * effort for entries not need arguments.
@@ -154,6 +220,19 @@ public interface AutoLogger {
     }
   }
 
+  /**
+   * Tells if this logger emits entries of the given `type` for the `method`.
+   * This is checked by {@link AutoLogger#createAllocationFree(AutoLogger)} once per method,
+   * and nothing is done for the entries for which this method returns `false`.
+   *
+   * @param type   A type of entries.
+   * @param method A method for which entries are created.
+   * @return `true` if entries should be passed to {@link AutoLogger#log(Entry)}.
+   */
+  default boolean isEnabledFor(Entry.Type type, Method method) {
+    return true;
+  }
+
   default Entry enter(Object object, Method method, Object[] args) {
     return Entry.enter(object, method, args);
   }
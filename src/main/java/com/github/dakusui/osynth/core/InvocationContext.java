@@ -1,39 +1,76 @@
 package com.github.dakusui.osynth.core;
 
 import java.lang.reflect.Method;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * An immutable context of a method invocation on a synthesized object.
+ *
+ * A context is bound only while a handler wrapped by {@link InvocationContext#withContextFor(Method, MethodHandler)}
+ * is running.
+ * When the handler returns, the context of the outer invocation, if any, is restored,
+ * and nothing is retained after the outermost one completes.
+ *
+ * On JDK 25 and later, a context is bound through a `ScopedValue` instead of a
+ * `ThreadLocal`.
+ */
 public interface InvocationContext {
-  ThreadLocal<InvocationContext> CONTEXT_THREAD_LOCAL = new ThreadLocal<>();
-
   Method invokedMethod();
 
+  /**
+   * Returns the context bound to the current thread.
+   *
+   * Note that an invocation controller no longer binds a context for every invocation.
+   * A handler that needs to know the invoked method should implement {@link MethodHandler.MethodAware},
+   * or be wrapped by {@link InvocationContext#withContextFor(Method, MethodHandler)}.
+   *
+   * @return The current context.
+   * @throws IllegalStateException No context is bound.
+   */
   static InvocationContext forCurrentThread() {
-    return requireNonNull(CONTEXT_THREAD_LOCAL.get());
+    InvocationContext ret = InvocationContextScope.current();
+    if (ret == null)
+      throw new IllegalStateException(
+          "No invocation context is bound to the current thread. " +
+              "Implement MethodHandler.MethodAware to know the invoked method, " +
+              "or wrap the handler with InvocationContext.withContextFor(Method, MethodHandler).");
+    return ret;
   }
 
-  class Impl implements InvocationContext {
-    private static void forCurrentThreadOrNewOneWith(Method invokedMethod) {
-      createContextIfNotYet().invokedMethod(invokedMethod);
-    }
-
-    static void contextWith(Method invokedMethod) {
-      Impl.forCurrentThreadOrNewOneWith(invokedMethod);
-    }
+  /**
+   * Returns the context bound to the current thread, if any.
+   *
+   * @return The current context, or an empty optional.
+   */
+  static Optional<InvocationContext> current() {
+    return Optional.ofNullable(InvocationContextScope.current());
+  }
 
-    private static Impl createContextIfNotYet() {
-      Impl ret = (Impl) CONTEXT_THREAD_LOCAL.get();
-      if (ret == null) {
-        ret = new Impl();
-        CONTEXT_THREAD_LOCAL.set(ret);
-      }
-      return ret;
-    }
+  /**
+   * Returns a method handler that binds the invocation context for `invokedMethod`
+   * while calling the given `methodHandler`.
+   * An invocation controller does not set up the context by itself.
+   * Use this method, only when a handler that reads {@link InvocationController#invocationContext()}
+   * needs to be called.
+   * Otherwise, prefer {@link MethodHandler.MethodAware}, which is given an invoked
+   * method without thread-local access.
+   *
+   * @param invokedMethod A method for which the handler is called.
+   * @param methodHandler A method handler to be called.
+   * @return A method handler that sets up the context.
+   */
+  static MethodHandler withContextFor(Method invokedMethod, MethodHandler methodHandler) {
+    requireNonNull(methodHandler);
+    InvocationContext context = new Impl(requireNonNull(invokedMethod));
+    return (synthesizedObject, args) -> InvocationContextScope.callWithin(context, methodHandler, synthesizedObject, args);
+  }
 
-    private Method invokedMethod;
+  final class Impl implements InvocationContext {
+    private final Method invokedMethod;
 
-    void invokedMethod(Method invokedMethod) {
+    Impl(Method invokedMethod) {
       this.invokedMethod = invokedMethod;
     }
 
@@ -41,5 +78,10 @@ public interface InvocationContext {
     public Method invokedMethod() {
       return this.invokedMethod;
     }
+
+    @Override
+    public String toString() {
+      return "invocationContext{invokedMethod=" + this.invokedMethod + "}";
+    }
   }
 }
@@ -0,0 +1,32 @@
+package com.github.dakusui.osynth.core;
+
+/**
+ * Binds an {@link InvocationContext} to the current thread while a method handler runs.
+ *
+ * This is an implementation for JDK 8 and later based on a `ThreadLocal`.
+ * A multi-release jar replaces this class with one based on a `ScopedValue` on
+ * JDK 25 and later, whose source is found under `src/main/java25`.
+ */
+final class InvocationContextScope {
+  private static final ThreadLocal<InvocationContext> CONTEXT = new ThreadLocal<>();
+
+  private InvocationContextScope() {
+  }
+
+  static InvocationContext current() {
+    return CONTEXT.get();
+  }
+
+  static Object callWithin(InvocationContext context, MethodHandler methodHandler, SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+    InvocationContext outer = CONTEXT.get();
+    CONTEXT.set(context);
+    try {
+      return methodHandler.handle(synthesizedObject, args);
+    } finally {
+      if (outer == null)
+        CONTEXT.remove();
+      else
+        CONTEXT.set(outer);
+    }
+  }
+}
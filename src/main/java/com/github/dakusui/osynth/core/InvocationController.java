@@ -2,6 +2,7 @@ package com.github.dakusui.osynth.core;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -13,7 +14,6 @@ public interface InvocationController extends InvocationHandler {
 
   @Override
   default Object invoke(Object proxy, Method method, Object[] args) {
-    InvocationContext.Impl.contextWith(method);
     return execute(() -> methodHandlerFor(method).handle((SynthesizedObject) proxy, toEmptyArrayIfNull(args)));
   }
 
@@ -23,6 +23,30 @@ public interface InvocationController extends InvocationHandler {
 
   SynthesizedObject.Descriptor descriptor();
 
+  /**
+   * Creates an object that implements given `interfaces` and whose methods are
+   * handled by this controller.
+   *
+   * By default, a {@link Proxy} object is created.
+   * An implementation may override this method to create an object through
+   * another mechanism.
+   *
+   * @param classLoader A class loader with which the object is created.
+   * @param interfaces  Interfaces that the object implements.
+   * @return A created object.
+   */
+  default Object createProxy(ClassLoader classLoader, Class<?>[] interfaces) {
+    return Proxy.newProxyInstance(classLoader, interfaces, this);
+  }
+
+  /**
+   * Returns an invocation context of the current thread.
+   * Note that a context is set up only for a handler wrapped by {@link InvocationContext#withContextFor(Method, MethodHandler)}.
+   * To know an invoked method, use {@link MethodHandler.MethodAware} instead.
+   *
+   * @return An invocation context of the current thread.
+   * @throws IllegalStateException No context is bound, e.g., this method is called from a plain {@link MethodHandler}.
+   */
   static InvocationContext invocationContext() {
     return InvocationContext.forCurrentThread();
   }
@@ -56,7 +80,7 @@ public interface InvocationController extends InvocationHandler {
     default MethodHandler figuredOutMethodHandlerAndApplyDecorator(Method method) {
       return descriptor()
           .methodHandlerDecorator()
-          .apply(method, figuredOutMethodHandlerFor(method));
+          .apply(method, MethodHandler.MethodAware.bindIfMethodAware(method, figuredOutMethodHandlerFor(method)));
     }
   }
 
@@ -1,5 +1,9 @@
 package com.github.dakusui.osynth.core;
 
+import java.lang.reflect.Method;
+
+import static java.util.Objects.requireNonNull;
+
 /**
  * An interface that represents how a method request will be handled.
  *
@@ -26,4 +30,359 @@ public interface MethodHandler {
 
   interface BuiltIn extends MethodHandler {
   }
+
+  /**
+   * A method handler that needs to know which method is invoked.
+   *
+   * An invocation controller binds a handler of this interface to a method, when it
+   * figures out the handler for the method.
+   * The invoked method is, therefore, given directly, without going through a
+   * thread-local {@link InvocationContext}.
+   */
+  @FunctionalInterface
+  interface MethodAware extends MethodHandler {
+    /**
+     * A method to handle a method invocation request.
+     *
+     * @param invokedMethod     A method that was invoked.
+     * @param synthesizedObject A synthesized object on which the method was invoked.
+     * @param args              Arguments passed to the target method.
+     * @return The result for the handled method.
+     * @throws Throwable An exception thrown during the handling.
+     */
+    Object handle(Method invokedMethod, SynthesizedObject synthesizedObject, Object[] args) throws Throwable;
+
+    /**
+     * Handles an invocation of a method given by the {@link InvocationContext} of the
+     * current thread.
+     * This method is called only when this handler is not bound to a method.
+     *
+     * @param synthesizedObject A synthesized object on which the method was invoked.
+     * @param args              Arguments passed to the target method.
+     * @return The result for the handled method.
+     * @throws Throwable An exception thrown during the handling.
+     * @see InvocationContext#withContextFor(Method, MethodHandler)
+     */
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handle(InvocationContext.forCurrentThread().invokedMethod(), synthesizedObject, args);
+    }
+
+    /**
+     * Returns a method handler bound to the `invokedMethod`, if the given `methodHandler`
+     * is a {@link MethodAware}.
+     * Otherwise, the `methodHandler` itself is returned.
+     *
+     * @param invokedMethod A method for which the handler is called.
+     * @param methodHandler A method handler.
+     * @return A method handler that does not need an invocation context.
+     */
+    static MethodHandler bindIfMethodAware(Method invokedMethod, MethodHandler methodHandler) {
+      requireNonNull(invokedMethod);
+      if (!(requireNonNull(methodHandler) instanceof MethodAware))
+        return methodHandler;
+      MethodAware methodAware = (MethodAware) methodHandler;
+      return (synthesizedObject, args) -> methodAware.handle(invokedMethod, synthesizedObject, args);
+    }
+  }
+
+  /**
+   * A method handler for a method without parameters.
+   *
+   * A class generated by `enableCompiledSynthesis()` calls {@link Handler0#handle(SynthesizedObject)}
+   * directly, without creating an argument array.
+   *
+   * Note that this is the only path that benefits from {@link Handler0} to {@link Handler3}.
+   * Other invocation controllers, including the default one, are called by a {@link java.lang.reflect.Proxy},
+   * which has already boxed the arguments into an array, and they call
+   * {@link MethodHandler#handle(SynthesizedObject, Object[])}.
+   *
+   * Even with `enableCompiledSynthesis()`, any {@link MethodHandlerDecorator} other than
+   * {@link MethodHandlerDecorator#IDENTITY}, e.g., auto-logging, a decorator from
+   * `AutoLoggingDecorators` or one from `MethodMetricsCollector`, disables this path.
+   * A decorator returns a plain {@link MethodHandler}, which is called with an argument array
+   * through an adapter.
+   */
+  @FunctionalInterface
+  interface Handler0 extends MethodHandler {
+    Object handle(SynthesizedObject synthesizedObject) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handle(synthesizedObject);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link Handler0}, otherwise, an adapter
+     * that calls it with an empty argument array.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method without parameters.
+     */
+    static Handler0 from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof Handler0)
+        return (Handler0) methodHandler;
+      return synthesizedObject -> methodHandler.handle(synthesizedObject, InvocationController.EMPTY_ARGS);
+    }
+  }
+
+  /**
+   * A method handler for a method with one parameter.
+   *
+   * A class generated by `enableCompiledSynthesis()` calls {@link Handler1#handle(SynthesizedObject, Object)}
+   * directly, without creating an argument array.
+   * See {@link Handler0} for other invocation controllers.
+   */
+  @FunctionalInterface
+  interface Handler1 extends MethodHandler {
+    Object handle(SynthesizedObject synthesizedObject, Object arg0) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handle(synthesizedObject, args[0]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link Handler1}, otherwise, an adapter
+     * that calls it with an argument array.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method with one parameter.
+     */
+    static Handler1 from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof Handler1)
+        return (Handler1) methodHandler;
+      return (synthesizedObject, arg0) -> methodHandler.handle(synthesizedObject, new Object[] { arg0 });
+    }
+  }
+
+  /**
+   * A method handler for a method with two parameters.
+   *
+   * A class generated by `enableCompiledSynthesis()` calls {@link Handler2#handle(SynthesizedObject, Object, Object)}
+   * directly, without creating an argument array.
+   * See {@link Handler0} for other invocation controllers.
+   */
+  @FunctionalInterface
+  interface Handler2 extends MethodHandler {
+    Object handle(SynthesizedObject synthesizedObject, Object arg0, Object arg1) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handle(synthesizedObject, args[0], args[1]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link Handler2}, otherwise, an adapter
+     * that calls it with an argument array.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method with two parameters.
+     */
+    static Handler2 from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof Handler2)
+        return (Handler2) methodHandler;
+      return (synthesizedObject, arg0, arg1) -> methodHandler.handle(synthesizedObject, new Object[] { arg0, arg1 });
+    }
+  }
+
+  /**
+   * A method handler for a method with three parameters.
+   *
+   * A class generated by `enableCompiledSynthesis()` calls {@link Handler3#handle(SynthesizedObject, Object, Object, Object)}
+   * directly, without creating an argument array.
+   * See {@link Handler0} for other invocation controllers.
+   */
+  @FunctionalInterface
+  interface Handler3 extends MethodHandler {
+    Object handle(SynthesizedObject synthesizedObject, Object arg0, Object arg1, Object arg2) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handle(synthesizedObject, args[0], args[1], args[2]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link Handler3}, otherwise, an adapter
+     * that calls it with an argument array.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method with three parameters.
+     */
+    static Handler3 from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof Handler3)
+        return (Handler3) methodHandler;
+      return (synthesizedObject, arg0, arg1, arg2) -> methodHandler.handle(synthesizedObject, new Object[] { arg0, arg1, arg2 });
+    }
+  }
+
+  /**
+   * A method handler for a method that takes an `int` and returns `int`.
+   *
+   * A class generated by `enableCompiledSynthesis()` calls {@link IntUnaryHandler#handleAsInt(SynthesizedObject, int)}
+   * directly, without boxing the arguments or the returned value.
+   * Elsewhere, e.g., on a proxy, the handler is called through {@link MethodHandler#handle(SynthesizedObject, Object[])}
+   * with boxed values.
+   *
+   * As described in {@link Handler0}, a method handler decorator other than
+   * {@link MethodHandlerDecorator#IDENTITY} disables this path, too.
+   * Then, the values are boxed, wrapped in an array, unboxed and boxed again on every call.
+   */
+  @FunctionalInterface
+  interface IntUnaryHandler extends MethodHandler {
+    int handleAsInt(SynthesizedObject synthesizedObject, int arg0) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handleAsInt(synthesizedObject, (Integer) args[0]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link IntUnaryHandler}, otherwise, an adapter
+     * that calls it with boxed values.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method that takes an `int` and returns `int`.
+     */
+    static IntUnaryHandler from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof IntUnaryHandler)
+        return (IntUnaryHandler) methodHandler;
+      return (synthesizedObject, arg0) -> (Integer) methodHandler.handle(synthesizedObject, new Object[] { arg0 });
+    }
+  }
+  /**
+   * A method handler for a method that takes two `int`s and returns `int`.
+   *
+   * @see IntUnaryHandler
+   */
+  @FunctionalInterface
+  interface IntBinaryHandler extends MethodHandler {
+    int handleAsInt(SynthesizedObject synthesizedObject, int arg0, int arg1) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handleAsInt(synthesizedObject, (Integer) args[0], (Integer) args[1]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link IntBinaryHandler}, otherwise, an adapter
+     * that calls it with boxed values.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method that takes two `int`s and returns `int`.
+     */
+    static IntBinaryHandler from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof IntBinaryHandler)
+        return (IntBinaryHandler) methodHandler;
+      return (synthesizedObject, arg0, arg1) -> (Integer) methodHandler.handle(synthesizedObject, new Object[] { arg0, arg1 });
+    }
+  }
+  /**
+   * A method handler for a method that takes a `long` and returns `long`.
+   *
+   * @see IntUnaryHandler
+   */
+  @FunctionalInterface
+  interface LongUnaryHandler extends MethodHandler {
+    long handleAsLong(SynthesizedObject synthesizedObject, long arg0) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handleAsLong(synthesizedObject, (Long) args[0]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link LongUnaryHandler}, otherwise, an adapter
+     * that calls it with boxed values.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method that takes a `long` and returns `long`.
+     */
+    static LongUnaryHandler from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof LongUnaryHandler)
+        return (LongUnaryHandler) methodHandler;
+      return (synthesizedObject, arg0) -> (Long) methodHandler.handle(synthesizedObject, new Object[] { arg0 });
+    }
+  }
+  /**
+   * A method handler for a method that takes two `long`s and returns `long`.
+   *
+   * @see IntUnaryHandler
+   */
+  @FunctionalInterface
+  interface LongBinaryHandler extends MethodHandler {
+    long handleAsLong(SynthesizedObject synthesizedObject, long arg0, long arg1) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handleAsLong(synthesizedObject, (Long) args[0], (Long) args[1]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link LongBinaryHandler}, otherwise, an adapter
+     * that calls it with boxed values.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method that takes two `long`s and returns `long`.
+     */
+    static LongBinaryHandler from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof LongBinaryHandler)
+        return (LongBinaryHandler) methodHandler;
+      return (synthesizedObject, arg0, arg1) -> (Long) methodHandler.handle(synthesizedObject, new Object[] { arg0, arg1 });
+    }
+  }
+  /**
+   * A method handler for a method that takes a `double` and returns `double`.
+   *
+   * @see IntUnaryHandler
+   */
+  @FunctionalInterface
+  interface DoubleUnaryHandler extends MethodHandler {
+    double handleAsDouble(SynthesizedObject synthesizedObject, double arg0) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handleAsDouble(synthesizedObject, (Double) args[0]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link DoubleUnaryHandler}, otherwise, an adapter
+     * that calls it with boxed values.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method that takes a `double` and returns `double`.
+     */
+    static DoubleUnaryHandler from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof DoubleUnaryHandler)
+        return (DoubleUnaryHandler) methodHandler;
+      return (synthesizedObject, arg0) -> (Double) methodHandler.handle(synthesizedObject, new Object[] { arg0 });
+    }
+  }
+  /**
+   * A method handler for a method that takes two `double`s and returns `double`.
+   *
+   * @see IntUnaryHandler
+   */
+  @FunctionalInterface
+  interface DoubleBinaryHandler extends MethodHandler {
+    double handleAsDouble(SynthesizedObject synthesizedObject, double arg0, double arg1) throws Throwable;
+
+    @Override
+    default Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+      return handleAsDouble(synthesizedObject, (Double) args[0], (Double) args[1]);
+    }
+
+    /**
+     * Returns `methodHandler` itself if it is a {@link DoubleBinaryHandler}, otherwise, an adapter
+     * that calls it with boxed values.
+     *
+     * @param methodHandler A method handler.
+     * @return A handler for a method that takes two `double`s and returns `double`.
+     */
+    static DoubleBinaryHandler from(MethodHandler methodHandler) {
+      if (requireNonNull(methodHandler) instanceof DoubleBinaryHandler)
+        return (DoubleBinaryHandler) methodHandler;
+      return (synthesizedObject, arg0, arg1) -> (Double) methodHandler.handle(synthesizedObject, new Object[] { arg0, arg1 });
+    }
+  }
 }
@@ -1,5 +1,9 @@
 package com.github.dakusui.osynth.core;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static com.github.dakusui.osynth.core.utils.MethodUtils.createMethodHandlerDelegatingToObject;
 import static com.github.dakusui.valid8j.Requires.requireNonNull;
 
@@ -11,29 +15,7 @@ public interface MethodHandlerEntry {
   boolean isBuiltIn();
 
   static MethodHandlerEntry create(MethodMatcher matcher, MethodHandler handler, boolean isBuiltIn) {
-    requireNonNull(matcher);
-    requireNonNull(handler);
-    return new MethodHandlerEntry() {
-      @Override
-      public MethodMatcher matcher() {
-        return matcher;
-      }
-
-      @Override
-      public MethodHandler handler() {
-        return handler;
-      }
-
-      @Override
-      public boolean isBuiltIn() {
-        return isBuiltIn;
-      }
-
-      @Override
-      public String toString() {
-        return String.format("(%s,%s)", matcher, handler);
-      }
-    };
+    return new StandardMethodHandlerEntry(requireNonNull(matcher), requireNonNull(handler), isBuiltIn);
   }
 
   class Builder {
@@ -61,12 +43,140 @@ public interface MethodHandlerEntry {
       return this.handler(handler).build();
     }
 
+    /**
+     * Builds an entry whose handler is given the invoked method.
+     *
+     * @param handler A method handler that needs to know the invoked method.
+     * @return A new method handler entry.
+     */
+    public MethodHandlerEntry with(MethodHandler.MethodAware handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry whose handler is called without an argument array by a class
+     * generated by `enableCompiledSynthesis()`.
+     * Objects synthesized otherwise call the handler with an argument array.
+     * So do generated classes, when a method handler decorator other than
+     * {@link MethodHandlerDecorator#IDENTITY} is set, because a decorated handler
+     * takes an argument array.
+     * Named differently from {@link Builder#with(MethodHandler)}, so that a lambda is
+     * not ambiguous.
+     *
+     * @param handler A method handler for a method without parameters.
+     * @return A new method handler entry.
+     */
+    public MethodHandlerEntry with0(MethodHandler.Handler0 handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry with a handler for a method with one parameter.
+     *
+     * @param handler A method handler for a method with one parameter.
+     * @return A new method handler entry.
+     * @see Builder#with0(MethodHandler.Handler0)
+     */
+    public MethodHandlerEntry with1(MethodHandler.Handler1 handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry with a handler for a method with two parameters.
+     *
+     * @param handler A method handler for a method with two parameters.
+     * @return A new method handler entry.
+     * @see Builder#with0(MethodHandler.Handler0)
+     */
+    public MethodHandlerEntry with2(MethodHandler.Handler2 handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry with a handler for a method with three parameters.
+     *
+     * @param handler A method handler for a method with three parameters.
+     * @return A new method handler entry.
+     * @see Builder#with0(MethodHandler.Handler0)
+     */
+    public MethodHandlerEntry with3(MethodHandler.Handler3 handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry whose handler is called without boxing by a class generated by
+     * `enableCompiledSynthesis()`, unless a method handler decorator other than
+     * {@link MethodHandlerDecorator#IDENTITY} is set.
+     *
+     * @param handler A method handler for a method that takes an `int` and returns `int`.
+     * @return A new method handler entry.
+     * @see Builder#with0(MethodHandler.Handler0)
+     */
+    public MethodHandlerEntry withIntUnary(MethodHandler.IntUnaryHandler handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry with a handler for a method that takes two `int`s and returns `int`.
+     *
+     * @param handler A method handler for a method that takes two `int`s and returns `int`.
+     * @return A new method handler entry.
+     * @see Builder#withIntUnary(MethodHandler.IntUnaryHandler)
+     */
+    public MethodHandlerEntry withIntBinary(MethodHandler.IntBinaryHandler handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry with a handler for a method that takes a `long` and returns `long`.
+     *
+     * @param handler A method handler for a method that takes a `long` and returns `long`.
+     * @return A new method handler entry.
+     * @see Builder#withIntUnary(MethodHandler.IntUnaryHandler)
+     */
+    public MethodHandlerEntry withLongUnary(MethodHandler.LongUnaryHandler handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry with a handler for a method that takes two `long`s and returns `long`.
+     *
+     * @param handler A method handler for a method that takes two `long`s and returns `long`.
+     * @return A new method handler entry.
+     * @see Builder#withIntUnary(MethodHandler.IntUnaryHandler)
+     */
+    public MethodHandlerEntry withLongBinary(MethodHandler.LongBinaryHandler handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry with a handler for a method that takes a `double` and returns `double`.
+     *
+     * @param handler A method handler for a method that takes a `double` and returns `double`.
+     * @return A new method handler entry.
+     * @see Builder#withIntUnary(MethodHandler.IntUnaryHandler)
+     */
+    public MethodHandlerEntry withDoubleUnary(MethodHandler.DoubleUnaryHandler handler) {
+      return this.handler(handler).build();
+    }
+
+    /**
+     * Builds an entry with a handler for a method that takes two `double`s and returns `double`.
+     *
+     * @param handler A method handler for a method that takes two `double`s and returns `double`.
+     * @return A new method handler entry.
+     * @see Builder#withIntUnary(MethodHandler.IntUnaryHandler)
+     */
+    public MethodHandlerEntry withDoubleBinary(MethodHandler.DoubleBinaryHandler handler) {
+      return this.handler(handler).build();
+    }
+
     public MethodHandlerEntry delegatingTo(Object object) {
       requireNonNull(object);
-      return this.handler((synthesizedObject, args) -> createMethodHandlerDelegatingToObject(
-              object,
-              MethodSignature.create(InvocationController.invocationContext().invokedMethod())).handle(synthesizedObject, args))
-          .build();
+      Map<Method, MethodHandler> handlers = new ConcurrentHashMap<>();
+      return this.with((invokedMethod, synthesizedObject, args) -> handlers.computeIfAbsent(
+              invokedMethod,
+              m -> createMethodHandlerDelegatingToObject(object, MethodSignature.create(m))).handle(synthesizedObject, args));
     }
   }
 }
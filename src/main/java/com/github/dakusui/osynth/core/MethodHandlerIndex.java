@@ -0,0 +1,93 @@
+package com.github.dakusui.osynth.core;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * An index of method handler entries to find the first entry matching with a method
+ * without testing every entry.
+ *
+ * Entries whose matchers tell their exact method names (see {@link MethodMatcher#exactName()})
+ * are indexed by the names.
+ * Other entries, e.g., ones using regular expressions or arbitrary predicates, are
+ * always tested.
+ * The entries are tested in their original order, so the first-match precedence is
+ * the same as a linear scan.
+ */
+public final class MethodHandlerIndex {
+  private static final int[] NO_INDICES = new int[0];
+
+  private final MethodHandlerEntry[] entries;
+  private final Class<?>[][]         exactParameterTypes;
+  private final Map<String, int[]>   indicesByName;
+  private final int[]                indicesOfUnnamedEntries;
+
+  private MethodHandlerIndex(MethodHandlerEntry[] entries) {
+    Map<String, List<Integer>> indicesByName = new HashMap<>();
+    List<Integer> indicesOfUnnamedEntries = new ArrayList<>();
+    this.entries = entries;
+    this.exactParameterTypes = new Class<?>[entries.length][];
+    for (int i = 0; i < entries.length; i++) {
+      MethodMatcher matcher = entries[i].matcher();
+      this.exactParameterTypes[i] = matcher.exactParameterTypes().map(v -> v.toArray(new Class<?>[0])).orElse(null);
+      Optional<String> exactName = matcher.exactName();
+      if (exactName.isPresent())
+        indicesByName.computeIfAbsent(exactName.get(), k -> new ArrayList<>()).add(i);
+      else
+        indicesOfUnnamedEntries.add(i);
+    }
+    this.indicesByName = new HashMap<>();
+    indicesByName.forEach((k, v) -> this.indicesByName.put(k, toIntArray(v)));
+    this.indicesOfUnnamedEntries = toIntArray(indicesOfUnnamedEntries);
+  }
+
+  public static MethodHandlerIndex create(List<MethodHandlerEntry> entries) {
+    return new MethodHandlerIndex(entries.toArray(new MethodHandlerEntry[0]));
+  }
+
+  /**
+   * Returns the index of the first entry whose matcher matches the given `method`.
+   *
+   * @param method A method to be matched.
+   * @return The index of the first matching entry, or an empty optional if no entry matches.
+   */
+  public OptionalInt firstMatchingIndexFor(Method method) {
+    int[] named = this.indicesByName.getOrDefault(method.getName(), NO_INDICES);
+    int[] unnamed = this.indicesOfUnnamedEntries;
+    Class<?>[] parameterTypes = null;
+    int i = 0, j = 0;
+    while (i < named.length || j < unnamed.length) {
+      int candidate = j >= unnamed.length || (i < named.length && named[i] < unnamed[j]) ?
+          named[i++] :
+          unnamed[j++];
+      if (this.exactParameterTypes[candidate] != null) {
+        if (parameterTypes == null)
+          parameterTypes = method.getParameterTypes();
+        if (!Arrays.equals(this.exactParameterTypes[candidate], parameterTypes))
+          continue;
+      }
+      if (this.entries[candidate].matcher().test(method))
+        return OptionalInt.of(candidate);
+    }
+    return OptionalInt.empty();
+  }
+
+  /**
+   * Returns the first entry whose matcher matches the given `method`.
+   *
+   * @param method A method to be matched.
+   * @return The first matching entry, or an empty optional if no entry matches.
+   */
+  public Optional<MethodHandlerEntry> firstMatchingEntryFor(Method method) {
+    OptionalInt index = firstMatchingIndexFor(method);
+    return index.isPresent() ? Optional.of(this.entries[index.getAsInt()]) : Optional.empty();
+  }
+
+  public int size() {
+    return this.entries.length;
+  }
+
+  private static int[] toIntArray(List<Integer> integers) {
+    return integers.stream().mapToInt(Integer::intValue).toArray();
+  }
+}
@@ -1,14 +1,66 @@
 package com.github.dakusui.osynth.core;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static java.util.Objects.requireNonNull;
+
 public interface MethodMatcher {
   boolean test(Method m);
 
+  /**
+   * Returns a method name, if this matcher never matches a method with a different name.
+   * Otherwise, an empty optional is returned.
+   *
+   * This is used to index method handler entries by method names.
+   * See {@link MethodHandlerIndex}.
+   *
+   * @return The name of methods that this matcher can match.
+   */
+  default Optional<String> exactName() {
+    return Optional.empty();
+  }
+
+  /**
+   * Returns parameter types, if this matcher never matches a method with different parameter types.
+   * Otherwise, an empty optional is returned.
+   *
+   * @return The parameter types of methods that this matcher can match.
+   * @see MethodMatcher#exactName()
+   */
+  default Optional<List<Class<?>>> exactParameterTypes() {
+    return Optional.empty();
+  }
+
+  /**
+   * Tells if this matcher matches a method if and only if the method has the name
+   * given by {@link MethodMatcher#exactName()} and the parameter types given by
+   * {@link MethodMatcher#exactParameterTypes()}, where an absent one is not checked.
+   *
+   * Matchers for which this method returns `true` are told apart only by their exact
+   * name and parameter types.
+   * E.g., a cache of method handler resolutions regards two of them as the same
+   * matcher, even if they are different objects.
+   *
+   * @return `true` if this matcher is fully described by its exact name and parameter types.
+   */
+  default boolean isDescribedByExactness() {
+    return false;
+  }
+
   default MethodMatcher and(MethodMatcher other) {
-    return create(m -> "and(" + this + "," + other + ")", v -> this.test(v) && other.test(v));
+    return PrivateUtils.withExactness(
+        create(m -> "and(" + this + "," + other + ")", v -> this.test(v) && other.test(v)),
+        PrivateUtils.firstPresent(this.exactName(), other.exactName()),
+        PrivateUtils.firstPresent(this.exactParameterTypes(), other.exactParameterTypes()),
+        this.isDescribedByExactness() && other.isDescribedByExactness() &&
+            !(this.exactName().isPresent() && other.exactName().isPresent()) &&
+            !(this.exactParameterTypes().isPresent() && other.exactParameterTypes().isPresent()));
   }
 
   default MethodMatcher or(MethodMatcher other) {
@@ -31,6 +83,69 @@ public interface MethodMatcher {
     return PrivateUtils.methodMatcherOverrideToString(toString, methodMatcher);
   }
 
+  /**
+   * Returns a matcher that behaves the same as the given `methodMatcher`, but tells
+   * that it only matches methods whose name is `methodName`.
+   * It is a caller's responsibility to make sure that `methodMatcher` never matches
+   * a method with another name.
+   *
+   * @param methodName    The name of methods that `methodMatcher` can match.
+   * @param methodMatcher A method matcher.
+   * @return A method matcher that exposes `methodName` through {@link MethodMatcher#exactName()}.
+   */
+  static MethodMatcher withExactName(String methodName, MethodMatcher methodMatcher) {
+    return PrivateUtils.withExactness(methodMatcher, Optional.of(methodName), methodMatcher.exactParameterTypes(), false);
+  }
+
+  /**
+   * Returns a matcher that behaves the same as the given `methodMatcher`, but tells
+   * that it only matches methods whose parameter types are `parameterTypes`.
+   * It is a caller's responsibility to make sure that `methodMatcher` never matches
+   * a method with other parameter types.
+   *
+   * @param parameterTypes The parameter types of methods that `methodMatcher` can match.
+   * @param methodMatcher  A method matcher.
+   * @return A method matcher that exposes `parameterTypes` through {@link MethodMatcher#exactParameterTypes()}.
+   */
+  static MethodMatcher withExactParameterTypes(Class<?>[] parameterTypes, MethodMatcher methodMatcher) {
+    return PrivateUtils.withExactness(methodMatcher, methodMatcher.exactName(), Optional.of(Collections.unmodifiableList(Arrays.asList(parameterTypes.clone()))), false);
+  }
+
+  /**
+   * Returns a matcher that matches a method whose name is `methodName`.
+   * The returned matcher is described by its exact name.
+   *
+   * @param methodName The name of methods to be matched.
+   * @return A method matcher.
+   * @see MethodMatcher#isDescribedByExactness()
+   */
+  static MethodMatcher nameEqualTo(String methodName) {
+    requireNonNull(methodName);
+    return PrivateUtils.withExactness(
+        create(method -> methodName.equals(method.getName())),
+        Optional.of(methodName),
+        Optional.empty(),
+        true);
+  }
+
+  /**
+   * Returns a matcher that matches a method whose parameter types are `parameterTypes`.
+   * The returned matcher is described by its exact parameter types.
+   *
+   * @param parameterTypes The parameter types of methods to be matched.
+   * @return A method matcher.
+   * @see MethodMatcher#isDescribedByExactness()
+   */
+  static MethodMatcher parameterTypesEqualTo(Class<?>[] parameterTypes) {
+    // Copied once, so that the predicate and the exact parameter types don't drift apart even if a caller modifies the array.
+    Class<?>[] copiedParameterTypes = parameterTypes.clone();
+    return PrivateUtils.withExactness(
+        create(method -> Arrays.equals(copiedParameterTypes, method.getParameterTypes())),
+        Optional.empty(),
+        Optional.of(Collections.unmodifiableList(Arrays.asList(copiedParameterTypes))),
+        true);
+  }
+
   enum PrivateUtils {
     ;
 
@@ -41,11 +156,61 @@ public interface MethodMatcher {
           return matcher.test(m);
         }
 
+        @Override
+        public Optional<String> exactName() {
+          return matcher.exactName();
+        }
+
+        @Override
+        public Optional<List<Class<?>>> exactParameterTypes() {
+          return matcher.exactParameterTypes();
+        }
+
+        @Override
+        public boolean isDescribedByExactness() {
+          return matcher.isDescribedByExactness();
+        }
+
         @Override
         public String toString() {
           return toString.apply(matcher);
         }
       };
     }
+
+    private static MethodMatcher withExactness(MethodMatcher matcher, Optional<String> exactName, Optional<List<Class<?>>> exactParameterTypes, boolean describedByExactness) {
+      if (!exactName.isPresent() && !exactParameterTypes.isPresent())
+        return matcher;
+      return new MethodMatcher() {
+        @Override
+        public boolean test(Method m) {
+          return matcher.test(m);
+        }
+
+        @Override
+        public Optional<String> exactName() {
+          return exactName;
+        }
+
+        @Override
+        public Optional<List<Class<?>>> exactParameterTypes() {
+          return exactParameterTypes;
+        }
+
+        @Override
+        public boolean isDescribedByExactness() {
+          return describedByExactness;
+        }
+
+        @Override
+        public String toString() {
+          return matcher.toString();
+        }
+      };
+    }
+
+    private static <T> Optional<T> firstPresent(Optional<T> a, Optional<T> b) {
+      return a.isPresent() ? a : b;
+    }
   }
 }
@@ -0,0 +1,109 @@
+package com.github.dakusui.osynth.core;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * An entry that is reused by the decorator created by {@link AutoLogger#createAllocationFree(AutoLogger)}.
+ * Entries are pooled per thread and per nesting depth of invocations, so that
+ * an invocation made inside another one does not overwrite the outer entry.
+ */
+final class ReusableEntry implements AutoLogger.Entry {
+  private static final ThreadLocal<Pool> POOL = ThreadLocal.withInitial(Pool::new);
+
+  private final Pool   pool;
+  private       Type   type;
+  private       Object object;
+  private       Method method;
+  private       String methodSignature;
+  private       Object value;
+
+  private ReusableEntry(Pool pool) {
+    this.pool = pool;
+  }
+
+  static ReusableEntry acquire() {
+    return POOL.get().acquire();
+  }
+
+  void release() {
+    this.type = null;
+    this.object = null;
+    this.method = null;
+    this.methodSignature = null;
+    this.value = null;
+    this.pool.release();
+  }
+
+  ReusableEntry set(Type type, Object object, Method method, String methodSignature, Object value) {
+    this.type = type;
+    this.object = object;
+    this.method = method;
+    this.methodSignature = methodSignature;
+    this.value = value;
+    return this;
+  }
+
+  @Override
+  public Type type() {
+    return this.type;
+  }
+
+  @Override
+  public Object object() {
+    return this.object;
+  }
+
+  @Override
+  public Method method() {
+    return this.method;
+  }
+
+  @Override
+  public String methodSignature() {
+    return this.methodSignature;
+  }
+
+  @Override
+  public boolean isMethodSignatureComputed() {
+    return true;
+  }
+
+  @Override
+  public Object value() {
+    return this.value;
+  }
+
+  @Override
+  public Object[] arguments() {
+    if (this.type != Type.ENTER)
+      throw new UnsupportedOperationException();
+    return (Object[]) this.value;
+  }
+
+  @Override
+  public Throwable exception() {
+    if (this.type != Type.EXCEPTION)
+      throw new UnsupportedOperationException();
+    return (Throwable) this.value;
+  }
+
+  private static final class Pool {
+    private ReusableEntry[] entries = new ReusableEntry[4];
+    private int             depth   = 0;
+
+    ReusableEntry acquire() {
+      if (this.depth == this.entries.length)
+        this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+      ReusableEntry ret = this.entries[this.depth];
+      if (ret == null)
+        this.entries[this.depth] = ret = new ReusableEntry(this);
+      this.depth++;
+      return ret;
+    }
+
+    void release() {
+      this.depth--;
+    }
+  }
+}
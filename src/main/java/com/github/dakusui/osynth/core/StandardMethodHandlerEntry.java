@@ -0,0 +1,47 @@
+package com.github.dakusui.osynth.core;
+
+/**
+ * A method handler entry created by {@link MethodHandlerEntry#create(MethodMatcher, MethodHandler, boolean)}.
+ *
+ * An entry remembers whether it respects reserved methods, so that the lightweight
+ * validator computes it only once for each entry without a shared, synchronized cache.
+ */
+final class StandardMethodHandlerEntry implements MethodHandlerEntry {
+  private final MethodMatcher matcher;
+  private final MethodHandler handler;
+  private final boolean       isBuiltIn;
+  private       Boolean       respectsReservedMethods;
+
+  StandardMethodHandlerEntry(MethodMatcher matcher, MethodHandler handler, boolean isBuiltIn) {
+    this.matcher = matcher;
+    this.handler = handler;
+    this.isBuiltIn = isBuiltIn;
+  }
+
+  @Override
+  public MethodMatcher matcher() {
+    return this.matcher;
+  }
+
+  @Override
+  public MethodHandler handler() {
+    return this.handler;
+  }
+
+  @Override
+  public boolean isBuiltIn() {
+    return this.isBuiltIn;
+  }
+
+  boolean respectsReservedMethods() {
+    Boolean ret = this.respectsReservedMethods;
+    if (ret == null)
+      this.respectsReservedMethods = ret = AbstractObjectSynthesizer.InternalUtils.computeRespectsReservedMethods(this);
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("(%s,%s)", this.matcher, this.handler);
+  }
+}
@@ -3,10 +3,12 @@ package com.github.dakusui.osynth.core;
 import com.github.dakusui.osynth.annotations.BuiltInHandlerFactory;
 import com.github.dakusui.osynth.annotations.ReservedByOSynth;
 import com.github.dakusui.osynth.core.utils.AssertionUtils;
+import com.github.dakusui.osynth.core.utils.ClassMetadata;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.github.dakusui.osynth.core.AbstractObjectSynthesizer.DEFAULT_FALLBACK_OBJECT;
 import static com.github.dakusui.osynth.core.MethodHandlerDecorator.chainMethodHandlerDecorators;
@@ -28,16 +30,27 @@ public interface SynthesizedObject {
   @ReservedByOSynth
   Descriptor descriptor();
 
+  /**
+   * Casts this object to `classInUse`, which must be one of the interfaces of this
+   * object, their super-interfaces, or {@link Object}.
+   *
+   * Whether this object can be cast to a class is remembered by the descriptor, so
+   * a successful cast only costs a map lookup.
+   *
+   * @param classInUse A class to which this object is cast.
+   * @param <T>        The type of the class.
+   * @return This object.
+   * @throws ClassCastException This object does not implement `classInUse`.
+   */
   @ReservedByOSynth
   default <T> T castTo(Class<T> classInUse) {
+    Descriptor descriptor = descriptor();
+    if (classInUse != null && descriptor.isCastableTo(classInUse))
+      return classInUse.cast(this);
     require(classInUse, and(
         isNotNull(),
         or(AssertionUtils.classIsInterface(), isEqualTo(Object.class))));
-    return descriptor().interfaces().stream()
-        .filter(classInUse::isAssignableFrom)
-        .findFirst()
-        .map(each -> classInUse.cast(this))
-        .orElseThrow(() -> new ClassCastException(messageForAttemptToCastToUnavailableInterface(classInUse, descriptor().interfaces())));
+    throw new ClassCastException(messageForAttemptToCastToUnavailableInterface(classInUse, descriptor.interfaces()));
   }
 
   @BuiltInHandlerFactory(BuiltInHandlerFactory.ForEquals.class)
@@ -72,12 +85,26 @@ public interface SynthesizedObject {
 
   /**
    * A class to describe attributes of a synthesized object.
+   *
+   * Interfaces and method handler entries are held by arrays, which are never modified
+   * once a descriptor is created.
+   * Therefore, a descriptor derived from another through {@link Descriptor.Builder}
+   * shares the arrays with the original one as long as they are not changed.
    */
   final class Descriptor {
-    final List<MethodHandlerEntry> methodHandlers;
-    final List<Class<?>>           interfaces;
-    final MethodHandlerDecorator   methodHandlerDecorator;
-    final Object                   fallbackObject;
+    private static final Class<?>[]           NO_INTERFACES       = new Class<?>[0];
+    private static final MethodHandlerEntry[] NO_METHOD_HANDLERS = new MethodHandlerEntry[0];
+
+    final         List<MethodHandlerEntry> methodHandlers;
+    final         List<Class<?>>           interfaces;
+    final         MethodHandlerDecorator   methodHandlerDecorator;
+    final         Object                   fallbackObject;
+    private final MethodHandlerEntry[]     methodHandlerArray;
+    private final Class<?>[]               interfaceArray;
+    private final Map<Class<?>, Boolean>   castability;
+    private       MethodHandlerIndex       methodHandlerIndex;
+    private       String                   string;
+    private       Canonical                canonical;
 
     public Descriptor(
         List<Class<?>> interfaces,
@@ -85,16 +112,61 @@ public interface SynthesizedObject {
         MethodHandlerDecorator methodHandlerDecorator,
         Object fallbackObject) {
       // Not using pcond library to avoid unintentional `toString` call back on failure.
-      this.methodHandlers = new LinkedList<>(Objects.requireNonNull(unmodifiableList(methodHandlers)));
-      this.interfaces = new LinkedList<>(Objects.requireNonNull(interfaces));
+      this(
+          Objects.requireNonNull(interfaces).toArray(NO_INTERFACES),
+          Objects.requireNonNull(methodHandlers).toArray(NO_METHOD_HANDLERS),
+          methodHandlerDecorator,
+          fallbackObject);
+    }
+
+    /**
+     * Creates a descriptor that takes the ownership of the given arrays.
+     * The arrays must not be modified by the caller afterwards.
+     */
+    private Descriptor(
+        Class<?>[] interfaces,
+        MethodHandlerEntry[] methodHandlers,
+        MethodHandlerDecorator methodHandlerDecorator,
+        Object fallbackObject) {
+      this.interfaceArray = interfaces;
+      this.methodHandlerArray = methodHandlers;
+      this.interfaces = unmodifiableList(Arrays.asList(interfaces));
+      this.methodHandlers = unmodifiableList(Arrays.asList(methodHandlers));
       this.fallbackObject = Objects.requireNonNull(fallbackObject);
       this.methodHandlerDecorator = Objects.requireNonNull(methodHandlerDecorator);
+      this.castability = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a descriptor that shares everything but the fallback object with `base`.
+     * Castability does not depend on a fallback object, therefore, it is shared, too.
+     */
+    private Descriptor(Descriptor base, Object fallbackObject) {
+      this.interfaceArray = base.interfaceArray;
+      this.methodHandlerArray = base.methodHandlerArray;
+      this.interfaces = base.interfaces;
+      this.methodHandlers = base.methodHandlers;
+      this.methodHandlerDecorator = base.methodHandlerDecorator;
+      this.fallbackObject = Objects.requireNonNull(fallbackObject);
+      this.castability = base.castability;
+      this.methodHandlerIndex = base.methodHandlerIndex;
     }
 
     public static List<MethodHandlerEntry> nonBuiltInMethodHandlerEntriesOf(Descriptor b) {
       return b.methodHandlerEntries().stream().filter(methodHandlerEntry -> !methodHandlerEntry.isBuiltIn()).collect(toList());
     }
 
+    /**
+     * Returns an array of non-built-in method handler entries of `descriptor`.
+     * The array of the descriptor itself is returned, if it has no built-in entries.
+     */
+    private static MethodHandlerEntry[] nonBuiltInMethodHandlerArrayOf(Descriptor descriptor) {
+      for (MethodHandlerEntry each : descriptor.methodHandlerArray)
+        if (each.isBuiltIn())
+          return nonBuiltInMethodHandlerEntriesOf(descriptor).toArray(NO_METHOD_HANDLERS);
+      return descriptor.methodHandlerArray;
+    }
+
     /**
      * Returns a new descriptor merging two descriptors.
      * The merge happens in a manner, where "a overrides b".
@@ -113,8 +185,20 @@ public interface SynthesizedObject {
       return builder.build();
     }
 
+    /**
+     * Returns a descriptor, which is the same as this one except its fallback object.
+     * Interfaces, method handler entries, and the decorator are shared with this
+     * descriptor, not copied.
+     *
+     * @param fallbackObject A fallback object of the returned descriptor.
+     * @return A descriptor whose fallback object is `fallbackObject`.
+     */
+    public Descriptor withFallbackObject(Object fallbackObject) {
+      return new Descriptor(this, fallbackObject);
+    }
+
     public List<Class<?>> interfaces() {
-      return unmodifiableList(this.interfaces);
+      return this.interfaces;
     }
 
     public MethodHandlerDecorator methodHandlerDecorator() {
@@ -129,9 +213,55 @@ public interface SynthesizedObject {
       return this.methodHandlers;
     }
 
+    /**
+     * Returns an index of the method handler entries of this descriptor, which is
+     * built on the first call.
+     *
+     * @return An index of the method handler entries.
+     */
+    public MethodHandlerIndex methodHandlerIndex() {
+      MethodHandlerIndex ret = this.methodHandlerIndex;
+      if (ret == null)
+        this.methodHandlerIndex = ret = MethodHandlerIndex.create(this.methodHandlers);
+      return ret;
+    }
+
+    /**
+     * Tells if an object described by this descriptor can be cast to `classInUse`.
+     * A result is computed on the first call for each class and remembered.
+     *
+     * @param classInUse A class to which an object is cast.
+     * @return `true` if one of the interfaces is assignable to `classInUse`.
+     */
+    public boolean isCastableTo(Class<?> classInUse) {
+      Boolean ret = this.castability.get(classInUse);
+      if (ret == null) {
+        ret = false;
+        for (Class<?> each : this.interfaces)
+          if (ClassMetadata.of(each).isAssignableTo(classInUse)) {
+            ret = true;
+            break;
+          }
+        this.castability.put(classInUse, ret);
+      }
+      return ret;
+    }
+
+    /**
+     * Returns a structural hash code of this descriptor, which is computed from the
+     * fallback object, the decorator, the interfaces, and the non-built-in method handler
+     * entries on the first call.
+     * Note that a descriptor is immutable, and a fallback object is supposed not to
+     * change its hash code, once the descriptor is created.
+     * Otherwise, descriptors sharing the fallback object may not be equal, because
+     * {@link Descriptor#equals(Object)} compares hash codes first.
+     * Unlike older versions, the hash code of the fallback object itself is not returned.
+     *
+     * @return A hash code.
+     */
     @Override
     public int hashCode() {
-      return this.fallbackObject.hashCode();
+      return canonical().hashCode;
     }
 
     @Override
@@ -142,50 +272,121 @@ public interface SynthesizedObject {
         return false;
       }
       Descriptor another = (Descriptor) anotherObject;
-      Set<MethodHandlerEntry> methodHandlerSet = new HashSet<>(nonBuiltInMethodHandlerEntriesOf(this));
-      Set<MethodHandlerEntry> methodHandlerSetFromAnother = new HashSet<>(nonBuiltInMethodHandlerEntriesOf(another));
-      return Objects.equals(fallbackObject, another.fallbackObject) &&
+      Canonical canonical = this.canonical();
+      Canonical canonicalOfAnother = another.canonical();
+      return canonical.hashCode == canonicalOfAnother.hashCode &&
+          Objects.equals(fallbackObject, another.fallbackObject) &&
           Objects.equals(methodHandlerDecorator, another.methodHandlerDecorator) &&
-          Objects.equals(interfaces, another.interfaces) &&
-          Objects.equals(methodHandlerSet, methodHandlerSetFromAnother);
+          Arrays.equals(interfaceArray, another.interfaceArray) &&
+          canonical.nonBuiltInMethodHandlerEntries.equals(canonicalOfAnother.nonBuiltInMethodHandlerEntries);
+    }
+
+    private Canonical canonical() {
+      Canonical ret = this.canonical;
+      if (ret == null)
+        this.canonical = ret = new Canonical(this);
+      return ret;
     }
 
+    /**
+     * Returns a string representation of this descriptor, which is composed on the
+     * first call.
+     * A change of a mutable fallback object after that is not reflected.
+     *
+     * @return A string representation.
+     */
     @Override
     public String toString() {
-      return format("{methodHandlers=%s,interfaces=%s,fallback:%s}",
-          nonBuiltInMethodHandlerEntriesOf(this),
-          this.interfaces(),
-          this.fallbackObject());
+      String ret = this.string;
+      if (ret == null)
+        this.string = ret = format("{methodHandlers=%s,interfaces=%s,fallback:%s}",
+            nonBuiltInMethodHandlerEntriesOf(this),
+            this.interfaces(),
+            this.fallbackObject());
+      return ret;
+    }
+
+    /**
+     * A canonical form of a descriptor, with which descriptors are compared.
+     * Method handler entries do not override `equals`, therefore, the set of entries
+     * is compared by identities of the entries.
+     */
+    private static final class Canonical {
+      final Set<MethodHandlerEntry> nonBuiltInMethodHandlerEntries;
+      final int                     hashCode;
+
+      Canonical(Descriptor descriptor) {
+        this.nonBuiltInMethodHandlerEntries = new HashSet<>(nonBuiltInMethodHandlerEntriesOf(descriptor));
+        this.hashCode = mix(mix(mix(
+                descriptor.fallbackObject.hashCode(),
+                descriptor.methodHandlerDecorator.hashCode()),
+            Arrays.hashCode(descriptor.interfaceArray)),
+            this.nonBuiltInMethodHandlerEntries.hashCode());
+      }
+
+      private static int mix(int h, int value) {
+        // The multiplier and the shift are the ones from MurmurHash3's 32-bit finalizer.
+        int ret = 31 * h + value;
+        ret ^= ret >>> 16;
+        ret *= 0x85ebca6b;
+        ret ^= ret >>> 13;
+        return ret;
+      }
     }
 
+    /**
+     * Returns a builder initialized with this descriptor, from which built-in method
+     * handler entries are removed.
+     *
+     * @return A new builder.
+     */
     public Descriptor.Builder toBuilder() {
-      return new Descriptor.Builder() {
-        {
-          Descriptor.this.interfaces().forEach(this::addInterface);
-          this.fallbackObject = Descriptor.this.fallbackObject;
-          this.methodHandlerDecorator = Descriptor.this.methodHandlerDecorator();
-          this.methodHandlers.addAll(nonBuiltInMethodHandlerEntriesOf(this.build()));
-        }
-      }.fallbackObject(this.fallbackObject());
+      return new Descriptor.Builder(
+          this.interfaceArray,
+          nonBuiltInMethodHandlerArrayOf(this),
+          this.methodHandlerDecorator,
+          this.fallbackObject,
+          null);
     }
 
     public static class Builder {
-      final List<Class<?>>           interfaces;
-      final List<MethodHandlerEntry> methodHandlers;
+      final SharedArray<Class<?>>           interfaces;
+      final SharedArray<MethodHandlerEntry> methodHandlers;
+      final Descriptor                      origin;
       MethodHandlerDecorator methodHandlerDecorator;
       Object                 fallbackObject;
 
       public Builder() {
-        interfaces = new LinkedList<>();
-        methodHandlers = new LinkedList<>();
+        this(NO_INTERFACES, NO_METHOD_HANDLERS, null, null, null);
       }
 
+      /**
+       * Creates a builder initialized with `descriptor`.
+       * Arrays of the descriptor are shared until the builder adds an element to them,
+       * and the `descriptor` itself is returned by {@link Builder#build()} if nothing is changed.
+       *
+       * @param descriptor A descriptor from which a new one is built.
+       */
       public Builder(Descriptor descriptor) {
-        this();
-        this.interfaces.addAll(descriptor.interfaces());
-        this.methodHandlers.addAll(descriptor.methodHandlerEntries());
-        this.methodHandlerDecorator = descriptor.methodHandlerDecorator();
-        this.fallbackObject = descriptor.fallbackObject();
+        this(
+            descriptor.interfaceArray,
+            descriptor.methodHandlerArray,
+            descriptor.methodHandlerDecorator(),
+            descriptor.fallbackObject(),
+            descriptor);
+      }
+
+      private Builder(
+          Class<?>[] interfaces,
+          MethodHandlerEntry[] methodHandlers,
+          MethodHandlerDecorator methodHandlerDecorator,
+          Object fallbackObject,
+          Descriptor origin) {
+        this.interfaces = new SharedArray<>(interfaces);
+        this.methodHandlers = new SharedArray<>(methodHandlers);
+        this.methodHandlerDecorator = methodHandlerDecorator;
+        this.fallbackObject = fallbackObject;
+        this.origin = origin;
       }
 
       public Builder fallbackObject(Object fallbackObject) {
@@ -209,7 +410,7 @@ public interface SynthesizedObject {
 
 
       public List<Class<?>> interfaces() {
-        return unmodifiableList(this.interfaces);
+        return this.interfaces.asList();
       }
 
       public MethodHandlerDecorator methodHandlerDecorator() {
@@ -217,7 +418,54 @@ public interface SynthesizedObject {
       }
 
       public Descriptor build() {
-        return new Descriptor(this.interfaces, this.methodHandlers, this.methodHandlerDecorator, this.fallbackObject);
+        Class<?>[] interfaces = this.interfaces.freeze();
+        MethodHandlerEntry[] methodHandlers = this.methodHandlers.freeze();
+        if (this.origin != null &&
+            this.origin.interfaceArray == interfaces &&
+            this.origin.methodHandlerArray == methodHandlers &&
+            this.origin.methodHandlerDecorator == this.methodHandlerDecorator &&
+            this.origin.fallbackObject == this.fallbackObject)
+          return this.origin;
+        return new Descriptor(interfaces, methodHandlers, this.methodHandlerDecorator, this.fallbackObject);
+      }
+    }
+
+    /**
+     * An append-only array, which is copied only when an element is added after it is
+     * handed to a descriptor, or to which an array of a descriptor is given.
+     *
+     * @param <E> A type of elements.
+     */
+    private static final class SharedArray<E> {
+      private E[]     elements;
+      private int     size;
+      private boolean shared;
+
+      SharedArray(E[] elements) {
+        this.elements = elements;
+        this.size = elements.length;
+        this.shared = true;
+      }
+
+      void add(E element) {
+        if (this.shared || this.size == this.elements.length) {
+          this.elements = Arrays.copyOf(this.elements, Math.max(4, this.size + (this.size >> 1) + 1));
+          this.shared = false;
+        }
+        this.elements[this.size++] = element;
+      }
+
+      E[] freeze() {
+        if (!this.shared) {
+          if (this.size != this.elements.length)
+            this.elements = Arrays.copyOf(this.elements, this.size);
+          this.shared = true;
+        }
+        return this.elements;
+      }
+
+      List<E> asList() {
+        return unmodifiableList(Arrays.asList(this.elements).subList(0, this.size));
       }
     }
   }
@@ -0,0 +1,223 @@
+package com.github.dakusui.osynth.core;
+
+import com.github.dakusui.osynth.invocationcontrollers.MethodHandlerResolutionCache.Resolution;
+import com.github.dakusui.osynth.invocationcontrollers.StandardInvocationController;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static com.github.dakusui.osynth.core.utils.MethodUtils.*;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A template of synthesized objects, which share interfaces, method handlers, and
+ * a decorator, and differ only in their fallback objects.
+ *
+ * A template is created from a synthesizer by {@link AbstractObjectSynthesizer#toTemplate()},
+ * where the descriptor is validated and preprocessed only once.
+ * Method handlers for all the methods of the interfaces are resolved and decorated
+ * when a template is created, and shared by all the objects instantiated from it.
+ * Therefore, {@link SynthesizerTemplate#instantiate(Object)} neither validates nor
+ * preprocesses anything, and it only creates a descriptor and a proxy, whose
+ * constructor is also looked up only once.
+ *
+ * A template is immutable and can be used by multiple threads concurrently.
+ */
+public final class SynthesizerTemplate {
+  /**
+   * The number of objects instantiated by one task of {@link SynthesizerTemplate#instantiateAll(Collection, Executor)}.
+   */
+  public static final int CHUNK_SIZE = 256;
+
+  private static final MethodSignature DESCRIPTOR_METHOD_SIGNATURE = MethodSignature.create("descriptor");
+  private static final MethodHandler   DESCRIPTOR_METHOD_HANDLER   = (synthesizedObject, args) -> {
+    throw new IllegalStateException("This handler must be replaced by the descriptor of an instance.");
+  };
+
+  private final ClassLoader                  classLoader;
+  private final SynthesizedObject.Descriptor descriptor;
+  private final Class<?>[]                   interfaces;
+  private final Map<Method, MethodHandler>   methodHandlers;
+  /**
+   * The constructor of the proxy class, which takes an `InvocationHandler`, or `null`
+   * if it is not accessible.
+   */
+  private final MethodHandle                 proxyConstructor;
+
+  SynthesizerTemplate(ClassLoader classLoader, SynthesizedObject.Descriptor descriptor) {
+    this.classLoader = classLoader;
+    this.descriptor = requireNonNull(descriptor);
+    this.interfaces = descriptor.interfaces().toArray(new Class<?>[0]);
+    this.methodHandlers = unmodifiableMap(resolveMethodHandlers(descriptor));
+    this.proxyConstructor = proxyConstructorFor(classLoader, this.interfaces);
+  }
+
+  /**
+   * Creates a new synthesized object whose fallback object is `fallbackObject`.
+   * Note that the object is not validated, e.g., whether `fallbackObject` has methods
+   * that are not handled by anything else is not checked.
+   *
+   * @param fallbackObject A fallback object of the new synthesized object.
+   * @return A new synthesized object.
+   */
+  public SynthesizedObject instantiate(Object fallbackObject) {
+    InvocationHandler instance = new Instance(this, this.descriptor.withFallbackObject(requireNonNull(fallbackObject)));
+    if (this.proxyConstructor == null)
+      return (SynthesizedObject) Proxy.newProxyInstance(this.classLoader, this.interfaces, instance);
+    return execute(() -> (SynthesizedObject) (Object) this.proxyConstructor.invokeExact(instance));
+  }
+
+  /**
+   * Creates synthesized objects, each of which has an element of `fallbackObjects`
+   * as its fallback object.
+   * Objects are created by tasks submitted to `executor`, each of which instantiates
+   * up to {@link SynthesizerTemplate#CHUNK_SIZE} objects, and this method waits for
+   * all of them to finish.
+   *
+   * @param fallbackObjects Fallback objects of the synthesized objects.
+   * @param executor        An executor by which objects are created.
+   * @return Synthesized objects in the same order as `fallbackObjects`.
+   */
+  public List<SynthesizedObject> instantiateAll(Collection<?> fallbackObjects, Executor executor) {
+    requireNonNull(executor);
+    Object[] fallbacks = fallbackObjects.toArray();
+    SynthesizedObject[] ret = new SynthesizedObject[fallbacks.length];
+    if (fallbacks.length <= CHUNK_SIZE)
+      instantiateAll(ret, fallbacks, 0, fallbacks.length);
+    else {
+      CompletableFuture<?>[] tasks = new CompletableFuture<?>[(fallbacks.length + CHUNK_SIZE - 1) / CHUNK_SIZE];
+      for (int i = 0; i < tasks.length; i++) {
+        int from = i * CHUNK_SIZE;
+        int to = Math.min(from + CHUNK_SIZE, fallbacks.length);
+        tasks[i] = CompletableFuture.runAsync(() -> instantiateAll(ret, fallbacks, from, to), executor);
+      }
+      try {
+        CompletableFuture.allOf(tasks).join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException)
+          throw (RuntimeException) e.getCause();
+        if (e.getCause() instanceof Error)
+          throw (Error) e.getCause();
+        throw e;
+      }
+    }
+    return Collections.unmodifiableList(Arrays.asList(ret));
+  }
+
+  /**
+   * Returns the descriptor of this template, whose fallback object is the one given
+   * to the synthesizer, from which this template is created.
+   *
+   * @return The descriptor of this template.
+   */
+  public SynthesizedObject.Descriptor descriptor() {
+    return this.descriptor;
+  }
+
+  @Override
+  public String toString() {
+    return "template:" + this.descriptor;
+  }
+
+  private void instantiateAll(SynthesizedObject[] out, Object[] fallbackObjects, int from, int to) {
+    for (int i = from; i < to; i++)
+      out[i] = instantiate(fallbackObjects[i]);
+  }
+
+  /**
+   * Returns the constructor of the proxy class for `interfaces`, so that an instance
+   * is created without looking up the proxy class and its constructor every time as
+   * {@link Proxy#newProxyInstance(ClassLoader, Class[], InvocationHandler)} does.
+   * If the constructor is not accessible, e.g., because the proxy class is in a module
+   * that does not open its package, `null` is returned.
+   */
+  @SuppressWarnings("deprecation")
+  private static MethodHandle proxyConstructorFor(ClassLoader classLoader, Class<?>[] interfaces) {
+    try {
+      Constructor<?> constructor = Proxy.getProxyClass(classLoader, interfaces).getConstructor(InvocationHandler.class);
+      if (!Modifier.isPublic(constructor.getDeclaringClass().getModifiers()))
+        constructor.setAccessible(true);
+      return MethodHandles.lookup().unreflectConstructor(constructor).asType(methodType(Object.class, InvocationHandler.class));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static Map<Method, MethodHandler> resolveMethodHandlers(SynthesizedObject.Descriptor descriptor) {
+    Resolver resolver = new Resolver(descriptor);
+    Map<Method, MethodHandler> ret = new HashMap<>();
+    for (Method each : methodsToResolve(descriptor.interfaces())) {
+      if (DESCRIPTOR_METHOD_SIGNATURE.equals(MethodSignature.create(each))) {
+        // A reserved method, which is neither overridden nor decorated.
+        ret.put(each, DESCRIPTOR_METHOD_HANDLER);
+        continue;
+      }
+      ret.put(each, resolver.figuredOutMethodHandlerAndApplyDecorator(each));
+    }
+    return ret;
+  }
+
+  /**
+   * Resolves method handlers in the same way as the {@link StandardInvocationController},
+   * except that a method of the fallback object is looked up on each call, because
+   * the fallback object differs among the instances of a template.
+   */
+  private static final class Resolver extends StandardInvocationController {
+    Resolver(SynthesizedObject.Descriptor descriptor) {
+      super(descriptor);
+    }
+
+    @Override
+    public MethodHandler figuredOutMethodHandlerFor(Method invokedMethod) {
+      Resolution resolution = resolutionFor(invokedMethod);
+      if (resolution.delegatesToFallbackObject())
+        return createMethodHandlerDelegatingToFallbackObject(MethodSignature.create(invokedMethod));
+      return resolution.methodHandlerFor(this.descriptor(), invokedMethod);
+    }
+  }
+
+  /**
+   * An invocation controller of an object instantiated from a template, which looks
+   * up the handlers resolved by the template.
+   */
+  private static final class Instance extends InvocationController.Base {
+    private final SynthesizerTemplate template;
+
+    Instance(SynthesizerTemplate template, SynthesizedObject.Descriptor descriptor) {
+      super(descriptor);
+      this.template = template;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      MethodHandler methodHandler = this.template.methodHandlers.get(method);
+      if (methodHandler == DESCRIPTOR_METHOD_HANDLER)
+        return this.descriptor();
+      return execute(() -> requireNonNull(methodHandler, method::toString).handle((SynthesizedObject) proxy, toEmptyArrayIfNull(args)));
+    }
+
+    @Override
+    public MethodHandler methodHandlerFor(Method method) {
+      MethodHandler ret = this.template.methodHandlers.get(method);
+      if (ret == DESCRIPTOR_METHOD_HANDLER)
+        return (synthesizedObject, args) -> this.descriptor();
+      return ret;
+    }
+
+    @Override
+    public MethodHandler figuredOutMethodHandlerFor(Method invokedMethod) {
+      return this.methodHandlerFor(invokedMethod);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.github.dakusui.osynth.core.utils;
+
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Reflection data of a class, which is computed only once and shared.
+ *
+ * Metadata is held by a {@link ClassValue} and lives as long as the class.
+ * Note that it is not free from references to other classes.
+ * Method lookups are cached with their {@link MethodSignature}s as keys, which hold
+ * parameter types, including ones of failed lookups.
+ * Therefore, metadata of a class loaded by a shared class loader, such as a JDK class,
+ * may keep classes from other class loaders reachable, once they are used in lookups.
+ * Each piece of metadata is computed on its first access.
+ */
+public final class ClassMetadata {
+  private static final ClassValue<ClassMetadata> METADATA = new ClassValue<ClassMetadata>() {
+    @Override
+    protected ClassMetadata computeValue(Class<?> type) {
+      return new ClassMetadata(type);
+    }
+  };
+
+  private final Class<?>                                              type;
+  private final ConcurrentMap<MethodSignature, Optional<Method>>        publicMethods         = new ConcurrentHashMap<>();
+  private final ConcurrentMap<MethodSignature, Optional<MethodHandler>> defaultMethodHandlers = new ConcurrentHashMap<>();
+  private       List<Class<?>>                                        interfaces;
+  private       List<Method>                                          allPublicMethods;
+  private       Set<Class<?>>                                         supertypes;
+
+  private ClassMetadata(Class<?> type) {
+    this.type = type;
+  }
+
+  /**
+   * Returns metadata of the given `type`.
+   *
+   * @param type A class.
+   * @return Metadata of the class.
+   */
+  public static ClassMetadata of(Class<?> type) {
+    return METADATA.get(type);
+  }
+
+  public Class<?> type() {
+    return this.type;
+  }
+
+  /**
+   * Returns interfaces directly implemented (or extended) by the class.
+   *
+   * @return Interfaces returned by {@link Class#getInterfaces()}.
+   */
+  public List<Class<?>> interfaces() {
+    List<Class<?>> ret = this.interfaces;
+    if (ret == null)
+      this.interfaces = ret = unmodifiableList(Arrays.asList(this.type.getInterfaces()));
+    return ret;
+  }
+
+  /**
+   * Returns all the public methods of the class, including inherited ones.
+   *
+   * @return Methods returned by {@link Class#getMethods()}.
+   */
+  public List<Method> publicMethods() {
+    List<Method> ret = this.allPublicMethods;
+    if (ret == null)
+      this.allPublicMethods = ret = unmodifiableList(Arrays.asList(this.type.getMethods()));
+    return ret;
+  }
+
+  /**
+   * Returns a public method of the class matching with `methodSignature`, which is
+   * looked up by {@link Class#getMethod(String, Class[])}.
+   *
+   * @param methodSignature A signature of a method.
+   * @return A public method, or an empty optional if not found.
+   */
+  public Optional<Method> publicMethodFor(MethodSignature methodSignature) {
+    return this.publicMethods.computeIfAbsent(methodSignature, s -> {
+      try {
+        return Optional.of(this.type.getMethod(s.name(), s.parameterTypes()));
+      } catch (NoSuchMethodException e) {
+        return Optional.empty();
+      }
+    });
+  }
+
+  /**
+   * Returns a method handler that calls a default method of the class, which is an
+   * interface, matching with `methodSignature`.
+   * A method handle for the default method is prepared on the first call.
+   *
+   * @param methodSignature A signature of a default method.
+   * @return A method handler, or an empty optional if no default method is found.
+   */
+  public Optional<MethodHandler> defaultMethodHandlerFor(MethodSignature methodSignature) {
+    return this.defaultMethodHandlers.computeIfAbsent(methodSignature, s -> publicMethodFor(s)
+        .filter(Method::isDefault)
+        .map(m -> MethodUtils.toMethodHandler(MethodUtils.methodHandleFor(m, this.type))));
+  }
+
+  /**
+   * Returns all the classes and interfaces, to which the class can be assigned,
+   * including the class itself and {@link Object}.
+   *
+   * @return A set of supertypes.
+   */
+  public Set<Class<?>> supertypes() {
+    Set<Class<?>> ret = this.supertypes;
+    if (ret == null)
+      this.supertypes = ret = unmodifiableSet(collectSupertypes(this.type, new HashSet<>()));
+    return ret;
+  }
+
+  /**
+   * Tells if the class can be assigned to `target`.
+   * This is equivalent to `target.isAssignableFrom(type())` for a non-primitive class.
+   *
+   * @param target A class to which the class is assigned.
+   * @return `true` if assignable.
+   */
+  public boolean isAssignableTo(Class<?> target) {
+    return supertypes().contains(target);
+  }
+
+  @Override
+  public String toString() {
+    return "classMetadata[" + this.type.getName() + "]";
+  }
+
+  private static Set<Class<?>> collectSupertypes(Class<?> type, Set<Class<?>> out) {
+    if (type == null || !out.add(type))
+      return out;
+    collectSupertypes(type.getSuperclass(), out);
+    for (Class<?> each : type.getInterfaces())
+      collectSupertypes(each, out);
+    out.add(Object.class);
+    return out;
+  }
+}
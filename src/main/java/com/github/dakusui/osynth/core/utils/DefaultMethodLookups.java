@@ -0,0 +1,41 @@
+package com.github.dakusui.osynth.core.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import static com.github.dakusui.osynth.core.utils.MethodUtils.execute;
+
+/**
+ * Creates method handles that call default methods of interfaces.
+ *
+ * This is an implementation for Java SE 8, which creates a {@link MethodHandles.Lookup}
+ * through its private constructor, since `MethodHandles.privateLookupIn` is not
+ * available.
+ * A multi-release jar replaces this class with one for JDK 9 and later, whose source
+ * is found under `src/main/java9`.
+ *
+ * A lookup is created only once for each interface and cached in a {@link ClassValue}.
+ */
+enum DefaultMethodLookups {
+  ;
+  private static final ClassValue<MethodHandles.Lookup> LOOKUPS = new ClassValue<MethodHandles.Lookup>() {
+    @Override
+    protected MethodHandles.Lookup computeValue(Class<?> type) {
+      return execute(() -> {
+        Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class);
+        constructor.setAccessible(true);
+        return constructor.newInstance(type);
+      });
+    }
+  };
+
+  static MethodHandles.Lookup lookupFor(Class<?> anInterfaceClass) {
+    return LOOKUPS.get(anInterfaceClass);
+  }
+
+  static MethodHandle methodHandleForDefaultMethod(Method method, Class<?> fromClass) {
+    return execute(() -> lookupFor(fromClass).unreflectSpecial(method, fromClass));
+  }
+}
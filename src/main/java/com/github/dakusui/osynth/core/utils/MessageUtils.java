@@ -22,6 +22,14 @@ public enum MessageUtils {
     return format("Tried to cast to '%s' but available interfaces are only: %s", classInUse, interfaces);
   }
 
+  public static String messageForUnresolvableMethods(List<MethodSignature> methodSignatures, Object fallbackObject) {
+    return format("Neither a method handler, a default method, nor a method of the fallback object '%s' was found for: %n%s",
+        fallbackObject,
+        methodSignatures.stream()
+            .map(Object::toString)
+            .collect(joining(format("%n- "), "- ", format("%n"))));
+  }
+
   public static String messageForReservedMethodOverridingValidationFailure(List<Object> methodSignatures) {
     return String.format("Reserved methods cannot be overridden. : %n%s",
         methodSignatures.stream()
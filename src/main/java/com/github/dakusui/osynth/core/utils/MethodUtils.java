@@ -8,12 +8,12 @@ import com.github.dakusui.osynth.exceptions.OsynthException;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -21,50 +21,143 @@ import static com.github.dakusui.osynth.core.utils.MessageUtils.messageForMissin
 import static com.github.dakusui.pcond.forms.Predicates.isNotNull;
 import static com.github.dakusui.pcond.forms.Predicates.transform;
 import static com.github.dakusui.valid8j.Assertions.that;
+import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.joining;
 
 public enum MethodUtils {
   ;
+  private static final MethodType   SPREAD_INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+  private static final List<Method> OBJECT_METHODS      = unmodifiableList(Arrays.asList(
+      execute(() -> Object.class.getMethod("hashCode")),
+      execute(() -> Object.class.getMethod("equals", Object.class)),
+      execute(() -> Object.class.getMethod("toString"))));
+
+  /**
+   * Method handles of delegation targets per target class.
+   * Like {@link ClassMetadata}, entries live as long as the target class, and their
+   * keys and method handles refer to parameter types, which may belong to other
+   * class loaders.
+   */
+  private static final ClassValue<ConcurrentMap<MethodSignature, MethodHandle>> DELEGATION_TARGETS = new ClassValue<ConcurrentMap<MethodSignature, MethodHandle>>() {
+    @Override
+    protected ConcurrentMap<MethodSignature, MethodHandle> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
 
   public static MethodHandler createMethodHandlerFromFallbackObject(final Object fallbackObject, MethodSignature methodSignature) {
     assert that(fallbackObject, isNotNull());
     return createMethodHandlerDelegatingToObject(fallbackObject, methodSignature);
   }
 
+  /**
+   * Returns a method handler that delegates an invocation to a method of the given `object`,
+   * which has the same signature as `methodSignature`.
+   *
+   * The method to be called is looked up on the first call and shared among handlers
+   * that delegate to objects of the same class.
+   * Therefore, a missing method is reported only when it is actually invoked.
+   *
+   * @param object          An object to which invocations are delegated.
+   * @param methodSignature A signature of a method to be called.
+   * @return A method handler.
+   */
   public static MethodHandler createMethodHandlerDelegatingToObject(Object object, MethodSignature methodSignature) {
     assert object != null;
-    return (synthesizedObject, args) -> execute(() -> {
-      Method method = getMethodFromClass(synthesizedObject, object.getClass(), methodSignature.name(), methodSignature.parameterTypes());
+    return new MethodHandler() {
+      private MethodHandle target;
+
+      @Override
+      public Object handle(SynthesizedObject synthesizedObject, Object[] args) {
+        MethodHandle target = this.target;
+        if (target == null)
+          this.target = target = delegationTargetFor(synthesizedObject, object.getClass(), methodSignature);
+        MethodHandle resolvedTarget = target;
+        return execute(() -> (Object) resolvedTarget.invokeExact(object, args));
+      }
+    };
+  }
+
+  /**
+   * Returns a method handler that delegates an invocation to a method of the fallback
+   * object of the synthesized object, on which the handler is invoked.
+   *
+   * Unlike {@link MethodUtils#createMethodHandlerFromFallbackObject(Object, MethodSignature)},
+   * the returned handler is not bound to a specific fallback object, so it can be
+   * shared among synthesized objects whose fallback objects differ.
+   *
+   * @param methodSignature A signature of a method to be called.
+   * @return A method handler.
+   */
+  public static MethodHandler createMethodHandlerDelegatingToFallbackObject(MethodSignature methodSignature) {
+    return (SynthesizedObject synthesizedObject, Object[] args) -> {
+      Object fallbackObject = synthesizedObject.descriptor().fallbackObject();
+      MethodHandle target = delegationTargetFor(synthesizedObject, fallbackObject.getClass(), methodSignature);
+      return execute(() -> (Object) target.invokeExact(fallbackObject, args));
+    };
+  }
+
+  private static MethodHandle delegationTargetFor(SynthesizedObject synthesizedObject, Class<?> targetClass, MethodSignature methodSignature) {
+    ConcurrentMap<MethodSignature, MethodHandle> targets = DELEGATION_TARGETS.get(targetClass);
+    MethodHandle ret = targets.get(methodSignature);
+    if (ret == null) {
+      // Not using computeIfAbsent, so that a failure is not cached and reported with the object on which the method is invoked.
+      Method method = getMethodFromClass(synthesizedObject, targetClass, methodSignature.name(), methodSignature.parameterTypes());
       method.setAccessible(true);
-      return method.invoke(object, args);
-    });
+      ret = toSpreadInvoker(execute(() -> MethodHandles.lookup().unreflect(method)));
+      MethodHandle existing = targets.putIfAbsent(methodSignature, ret);
+      if (existing != null)
+        ret = existing;
+    }
+    return ret;
   }
 
+  /**
+   * Adapts a method handle for an instance method to the type `(Object,Object[])Object`,
+   * so that it can be called with `invokeExact` by passing a receiver and an argument array.
+   *
+   * @param methodHandle A method handle whose first parameter is a receiver.
+   * @return An adapted method handle.
+   */
+  public static MethodHandle toSpreadInvoker(MethodHandle methodHandle) {
+    return methodHandle
+        .asSpreader(Object[].class, methodHandle.type().parameterCount() - 1)
+        .asType(SPREAD_INVOKER_TYPE);
+  }
+
+  /**
+   * Returns a method handler that calls a default method of `fromClass` matching with `methodSignature`.
+   * A handler is created only once for each pair of an interface and a method signature
+   * and held by {@link ClassMetadata}.
+   *
+   * @param fromClass       An interface class.
+   * @param methodSignature A signature of a default method.
+   * @return A method handler if a default method is found, otherwise, an empty optional.
+   */
   public static Optional<MethodHandler> createMethodHandlerFromInterfaceClass(Class<?> fromClass, MethodSignature methodSignature) {
-    return findMethodHandleFor(methodSignature, fromClass).map(MethodUtils::toMethodHandler);
+    return ClassMetadata.of(fromClass).defaultMethodHandlerFor(methodSignature);
   }
 
   static MethodHandler toMethodHandler(MethodHandle methodHandle) {
+    MethodHandle spreadInvoker = toSpreadInvoker(methodHandle);
     return (SynthesizedObject synthesizedObject, Object[] arguments) -> execute(
-        () -> methodHandle.bindTo(synthesizedObject).invokeWithArguments(arguments));
-  }
-
-  static Optional<MethodHandle> findMethodHandleFor(MethodSignature methodSignature, Class<?> fromClass) {
-    return findMethodMatchingWith(methodSignature, fromClass).filter(Method::isDefault).map(m -> methodHandleFor(m, fromClass));
+        () -> (Object) spreadInvoker.invokeExact((Object) synthesizedObject, arguments));
   }
 
-  private static MethodHandle methodHandleFor(Method m, Class<?> fromClass) {
+  static MethodHandle methodHandleFor(Method m, Class<?> fromClass) {
     assert that(fromClass, transform(AssertionUtils.classGetMethod(m.getName(), m.getParameterTypes())).check(isNotNull()));
-    return execute(() -> createMethodHandlesLookupFor(fromClass).in(fromClass).unreflectSpecial(m, fromClass));
+    return DefaultMethodLookups.methodHandleForDefaultMethod(m, fromClass);
   }
 
-  public static synchronized MethodHandles.Lookup createMethodHandlesLookupFor(Class<?> anInterfaceClass) {
-    return execute(() -> {
-      Constructor<MethodHandles.Lookup> constructor;
-      constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class);
-      constructor.setAccessible(true);
-      return constructor.newInstance(anInterfaceClass);
-    });
+  /**
+   * Returns a lookup that has private access to `anInterfaceClass`.
+   * A lookup is created only once for each interface.
+   *
+   * @param anInterfaceClass An interface class.
+   * @return A lookup object.
+   */
+  public static MethodHandles.Lookup createMethodHandlesLookupFor(Class<?> anInterfaceClass) {
+    return DefaultMethodLookups.lookupFor(anInterfaceClass);
   }
 
   /**
@@ -102,6 +195,25 @@ public enum MethodUtils {
         .findFirst();
   }
 
+  /**
+   * Returns methods that an object implementing `interfaces` responds to, i.e.,
+   * `hashCode`, `equals`, and `toString` of `Object`, followed by the non-static
+   * public methods of the interfaces, without duplicates.
+   * Handlers for these methods are resolved in advance by an invocation controller
+   * or a template that does not resolve them on the first call.
+   *
+   * @param interfaces Interfaces of an object.
+   * @return Methods to be resolved.
+   */
+  public static List<Method> methodsToResolve(List<Class<?>> interfaces) {
+    Set<Method> ret = new LinkedHashSet<>(OBJECT_METHODS);
+    for (Class<?> eachInterface : interfaces)
+      for (Method eachMethod : ClassMetadata.of(eachInterface).publicMethods())
+        if (!Modifier.isStatic(eachMethod.getModifiers()))
+          ret.add(eachMethod);
+    return unmodifiableList(new ArrayList<>(ret));
+  }
+
   public static boolean isToStringOverridden(Class<?> aClass) {
     return !getMethodFromClass(aClass, "toString").getDeclaringClass().equals(Object.class);
   }
@@ -111,7 +223,11 @@ public enum MethodUtils {
   }
 
   private static Method getMethodFromClass(Object objectForErrorMessageFormatting, Class<?> aClass, String methodName, Class<?>... parameterTypes) {
+    Optional<Method> ret = ClassMetadata.of(aClass).publicMethodFor(MethodSignature.create(methodName, parameterTypes));
+    if (ret.isPresent())
+      return ret.get();
     try {
+      // Only to compose an exception with the same message as the one from the JDK.
       return aClass.getMethod(methodName, parameterTypes);
     } catch (NoSuchMethodException e) {
       throw new UnsupportedOperationException(messageForMissingMethodHandler(methodName, parameterTypes, objectForErrorMessageFormatting, e), e);
@@ -171,14 +287,6 @@ public enum MethodUtils {
     T get() throws Throwable;
   }
 
-  private static Optional<Method> findMethodMatchingWith(MethodSignature methodSignature, Class<?> fromClass) {
-    try {
-      return Optional.of(fromClass.getMethod(methodSignature.name(), methodSignature.parameterTypes()));
-    } catch (NoSuchMethodException e) {
-      return Optional.empty();
-    }
-  }
-
   public static MethodHandler withName(String name, MethodHandler methodHandler) {
     return new MethodHandler() {
       @Override
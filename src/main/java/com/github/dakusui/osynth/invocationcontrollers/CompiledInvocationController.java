@@ -0,0 +1,38 @@
+package com.github.dakusui.osynth.invocationcontrollers;
+
+import com.github.dakusui.osynth.compiler.SynthesizedClassCompiler;
+import com.github.dakusui.osynth.compiler.SynthesizedClassCompiler.CompiledClass;
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+
+/**
+ * An invocation controller that creates an instance of a class generated by
+ * {@link SynthesizedClassCompiler} instead of a {@link java.lang.reflect.Proxy}.
+ *
+ * Method handlers for all the methods of the interfaces are resolved (and decorated)
+ * when the object is created.
+ * Therefore, a method invocation on the created object does not go through
+ * {@link CompiledInvocationController#invoke(Object, java.lang.reflect.Method, Object[])}.
+ */
+public class CompiledInvocationController extends StandardInvocationController {
+  public CompiledInvocationController(SynthesizedObject.Descriptor descriptor) {
+    super(descriptor);
+  }
+
+  public CompiledInvocationController(SynthesizedObject.Descriptor descriptor, MethodHandlerResolutionCache resolutionCache) {
+    super(descriptor, resolutionCache);
+  }
+
+  @Override
+  public Object createProxy(ClassLoader classLoader, Class<?>[] interfaces) {
+    return SynthesizedClassCompiler.compile(classLoader, interfaces)
+        .map(this::instantiate)
+        .orElseGet(() -> super.createProxy(classLoader, interfaces));
+  }
+
+  private Object instantiate(CompiledClass compiledClass) {
+    return compiledClass.newInstance(compiledClass.methods().stream()
+        .map(this::methodHandlerFor)
+        .toArray(MethodHandler[]::new));
+  }
+}
@@ -0,0 +1,317 @@
+package com.github.dakusui.osynth.invocationcontrollers;
+
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.MethodHandlerEntry;
+import com.github.dakusui.osynth.core.MethodMatcher;
+import com.github.dakusui.osynth.core.MethodSignature;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static com.github.dakusui.osynth.core.utils.MethodUtils.createMethodHandlerFromFallbackObject;
+import static com.github.dakusui.pcond.forms.Predicates.greaterThan;
+import static com.github.dakusui.valid8j.Requires.requireArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A cache that remembers how a method invoked on a synthesized object is resolved.
+ *
+ * Resolutions are keyed by a {@link Shape} of a descriptor and an invoked method.
+ * Since a shape only consists of the interfaces and the matchers of the method
+ * handler entries, structurally identical descriptors share the same resolutions
+ * even if they belong to different synthesized objects.
+ * A matcher described by its exact name and parameter types, such as the one created
+ * by `methodCall(String, Class...)`, is compared by them, and the others are compared
+ * by identity.
+ *
+ * A resolution does not hold anything specific to a synthesized object, such as
+ * its fallback object.
+ * It is turned into a method handler for a specific descriptor by
+ * {@link Resolution#methodHandlerFor(SynthesizedObject.Descriptor, Method)}.
+ *
+ * The number of resolutions held by a cache is bounded.
+ * When it exceeds the maximum size, a quarter of the resolutions are evicted
+ * in no particular order by one of the threads that find the cache full.
+ * The others don't wait for the eviction, therefore, the size may exceed the
+ * maximum size temporarily.
+ */
+public class MethodHandlerResolutionCache {
+  public static final  int                          DEFAULT_MAXIMUM_SIZE = 10_000;
+  private static final MethodHandlerResolutionCache GLOBAL               = new MethodHandlerResolutionCache(DEFAULT_MAXIMUM_SIZE);
+
+  private final ConcurrentMap<Key, Resolution> resolutions   = new ConcurrentHashMap<>();
+  private final int                            maximumSize;
+  private final LongAdder                      hitCount      = new LongAdder();
+  private final LongAdder                      missCount     = new LongAdder();
+  private final LongAdder                      evictionCount = new LongAdder();
+  private final AtomicBoolean                  evicting      = new AtomicBoolean();
+
+  public MethodHandlerResolutionCache(int maximumSize) {
+    this.maximumSize = requireArgument(maximumSize, greaterThan(0));
+  }
+
+  /**
+   * Returns a process-wide cache instance, which is used by {@link StandardInvocationController}
+   * by default.
+   *
+   * @return The process-wide cache instance.
+   */
+  public static MethodHandlerResolutionCache global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Returns a resolution for the `method` invoked on an object whose descriptor has
+   * the given `shape`.
+   * If it is not cached yet, the `resolver` is called and its result is stored.
+   *
+   * @param shape    The shape of a descriptor.
+   * @param method   An invoked method.
+   * @param resolver A function that figures out a resolution on a cache miss.
+   * @return A resolution for the method.
+   */
+  public Resolution resolutionFor(Shape shape, Method method, Function<Method, Resolution> resolver) {
+    Key key = new Key(shape, method);
+    Resolution ret = this.resolutions.get(key);
+    if (ret != null) {
+      this.hitCount.increment();
+      return ret;
+    }
+    this.missCount.increment();
+    ret = requireNonNull(resolver.apply(method));
+    evictIfNecessary();
+    Resolution existing = this.resolutions.putIfAbsent(key, ret);
+    return existing != null ? existing : ret;
+  }
+
+  public int maximumSize() {
+    return this.maximumSize;
+  }
+
+  public int size() {
+    return this.resolutions.size();
+  }
+
+  public long hitCount() {
+    return this.hitCount.sum();
+  }
+
+  public long missCount() {
+    return this.missCount.sum();
+  }
+
+  public long evictionCount() {
+    return this.evictionCount.sum();
+  }
+
+  public void clear() {
+    this.resolutions.clear();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("resolutionCache{size=%s,maximumSize=%s,hit=%s,miss=%s,eviction=%s}",
+        size(), maximumSize(), hitCount(), missCount(), evictionCount());
+  }
+
+  private void evictIfNecessary() {
+    if (this.resolutions.size() < this.maximumSize || !this.evicting.compareAndSet(false, true))
+      return;
+    try {
+      int numEntriesToEvict = Math.max(1, this.maximumSize / 4);
+      Iterator<Key> i = this.resolutions.keySet().iterator();
+      while (numEntriesToEvict > 0 && i.hasNext()) {
+        i.next();
+        i.remove();
+        this.evictionCount.increment();
+        numEntriesToEvict--;
+      }
+    } finally {
+      this.evicting.set(false);
+    }
+  }
+
+  /**
+   * An immutable "shape" of a {@link SynthesizedObject.Descriptor}, which consists
+   * of the interfaces and the matchers of the method handler entries in the
+   * descriptor.
+   * A matcher is represented by its exact name and parameter types, if it is
+   * described by them, otherwise, by the matcher itself.
+   *
+   * Two descriptors of the same shape always resolve an invoked method in the
+   * same way.
+   */
+  public static final class Shape {
+    private final Class<?>[] interfaces;
+    private final Object[]   matchers;
+    private final int        hashCode;
+
+    private Shape(Class<?>[] interfaces, Object[] matchers) {
+      this.interfaces = interfaces;
+      this.matchers = matchers;
+      this.hashCode = 31 * Arrays.hashCode(interfaces) + Arrays.hashCode(matchers);
+    }
+
+    public static Shape of(SynthesizedObject.Descriptor descriptor) {
+      List<MethodHandlerEntry> entries = descriptor.methodHandlerEntries();
+      return new Shape(
+          descriptor.interfaces().toArray(new Class<?>[0]),
+          entries.stream().map(MethodHandlerEntry::matcher).map(Shape::keyOf).toArray());
+    }
+
+    private static Object keyOf(MethodMatcher matcher) {
+      if (matcher.isDescribedByExactness())
+        return Arrays.asList(matcher.exactName(), matcher.exactParameterTypes());
+      return matcher;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object anotherObject) {
+      if (this == anotherObject)
+        return true;
+      if (!(anotherObject instanceof Shape))
+        return false;
+      Shape another = (Shape) anotherObject;
+      return this.hashCode == another.hashCode &&
+          Arrays.equals(this.interfaces, another.interfaces) &&
+          Arrays.equals(this.matchers, another.matchers);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("shape{interfaces=%s,matchers=%s}", Arrays.toString(interfaces), Arrays.toString(matchers));
+    }
+  }
+
+  /**
+   * A result of method handler resolution, which is independent of a specific
+   * synthesized object.
+   */
+  public interface Resolution {
+    /**
+     * Returns a method handler for an invoked `method` on an object described by
+     * `descriptor`.
+     * Note that a decorator is not applied to the returned handler.
+     *
+     * @param descriptor A descriptor of the object on which the method is invoked.
+     * @param method     An invoked method.
+     * @return A method handler for the method.
+     */
+    MethodHandler methodHandlerFor(SynthesizedObject.Descriptor descriptor, Method method);
+
+    /**
+     * Tells if this resolution delegates an invocation to the fallback object of a descriptor.
+     *
+     * @return `true` if the invocation is delegated to the fallback object.
+     */
+    default boolean delegatesToFallbackObject() {
+      return false;
+    }
+
+    /**
+     * Returns a resolution that picks up the handler of the method handler entry at
+     * `index` of a descriptor.
+     *
+     * @param index An index of a matched method handler entry.
+     * @return A resolution.
+     */
+    static Resolution methodHandlerEntryAt(int index) {
+      return new Resolution() {
+        @Override
+        public MethodHandler methodHandlerFor(SynthesizedObject.Descriptor descriptor, Method method) {
+          return descriptor.methodHandlerEntries().get(index).handler();
+        }
+
+        @Override
+        public String toString() {
+          return "methodHandlerEntryAt[" + index + "]";
+        }
+      };
+    }
+
+    /**
+     * Returns a resolution that always gives the same `methodHandler`.
+     * The handler must not depend on a specific descriptor, e.g., a handler for
+     * a default method of an interface.
+     *
+     * @param methodHandler A method handler shared among descriptors.
+     * @return A resolution.
+     */
+    static Resolution shared(MethodHandler methodHandler) {
+      requireNonNull(methodHandler);
+      return new Resolution() {
+        @Override
+        public MethodHandler methodHandlerFor(SynthesizedObject.Descriptor descriptor, Method method) {
+          return methodHandler;
+        }
+
+        @Override
+        public String toString() {
+          return "shared[" + methodHandler + "]";
+        }
+      };
+    }
+
+    /**
+     * Returns a resolution that delegates an invocation to the fallback object
+     * of a descriptor.
+     *
+     * @return A resolution.
+     */
+    static Resolution fallbackObject() {
+      return new Resolution() {
+        @Override
+        public MethodHandler methodHandlerFor(SynthesizedObject.Descriptor descriptor, Method method) {
+          return createMethodHandlerFromFallbackObject(descriptor.fallbackObject(), MethodSignature.create(method));
+        }
+
+        @Override
+        public boolean delegatesToFallbackObject() {
+          return true;
+        }
+
+        @Override
+        public String toString() {
+          return "fallbackObject";
+        }
+      };
+    }
+  }
+
+  private static final class Key {
+    final Shape  shape;
+    final Method method;
+
+    Key(Shape shape, Method method) {
+      this.shape = shape;
+      this.method = method;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.shape.hashCode() + this.method.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object anotherObject) {
+      if (!(anotherObject instanceof Key))
+        return false;
+      Key another = (Key) anotherObject;
+      return Objects.equals(this.shape, another.shape) && Objects.equals(this.method, another.method);
+    }
+  }
+}
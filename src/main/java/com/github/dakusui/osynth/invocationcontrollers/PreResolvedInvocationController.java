@@ -0,0 +1,73 @@
+package com.github.dakusui.osynth.invocationcontrollers;
+
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.MethodSignature;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import com.github.dakusui.osynth.core.utils.ClassMetadata;
+import com.github.dakusui.osynth.exceptions.ValidationException;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.github.dakusui.osynth.core.utils.MessageUtils.messageForUnresolvableMethods;
+import static com.github.dakusui.osynth.core.utils.MethodUtils.methodsToResolve;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * An invocation controller that resolves method handlers for all the methods of
+ * the interfaces of a descriptor, when it is created.
+ *
+ * The resolved handlers are held by an immutable map, and an invocation only looks
+ * it up.
+ * If there is a method that is not handled by any method handler entry, a default
+ * method, or a method of the fallback object, a {@link ValidationException} is thrown
+ * on creation, instead of an exception on the first call.
+ */
+public class PreResolvedInvocationController extends StandardInvocationController {
+  private final Map<Method, MethodHandler> methodHandlers;
+
+  /**
+   * Creates a new object of this class.
+   *
+   * @param descriptor A descriptor of a synthesized object.
+   * @param parallel   Resolves method handlers in parallel, if `true`.
+   */
+  public PreResolvedInvocationController(SynthesizedObject.Descriptor descriptor, boolean parallel) {
+    this(descriptor, MethodHandlerResolutionCache.global(), parallel);
+  }
+
+  public PreResolvedInvocationController(SynthesizedObject.Descriptor descriptor, MethodHandlerResolutionCache resolutionCache, boolean parallel) {
+    super(descriptor, resolutionCache);
+    List<Method> methods = methodsToResolve(descriptor.interfaces());
+    ensureAllMethodsResolvable(parallel ? methods.parallelStream() : methods.stream());
+    this.methodHandlers = unmodifiableMap((parallel ? methods.parallelStream() : methods.stream())
+        .collect(toMap(each -> each, this::figuredOutMethodHandlerAndApplyDecorator)));
+  }
+
+  @Override
+  public MethodHandler methodHandlerFor(Method method) {
+    MethodHandler ret = this.methodHandlers.get(method);
+    if (ret != null)
+      return ret;
+    return super.methodHandlerFor(method);
+  }
+
+  private void ensureAllMethodsResolvable(Stream<Method> methods) {
+    Class<?> fallbackObjectClass = this.descriptor().fallbackObject().getClass();
+    List<MethodSignature> unresolvableMethods = methods
+        .filter(each -> resolutionFor(each).delegatesToFallbackObject())
+        .filter(each -> !hasPublicMethod(fallbackObjectClass, each))
+        .map(MethodSignature::create)
+        .collect(toList());
+    if (!unresolvableMethods.isEmpty())
+      throw new ValidationException(messageForUnresolvableMethods(unresolvableMethods, this.descriptor().fallbackObject()));
+  }
+
+  private static boolean hasPublicMethod(Class<?> aClass, Method method) {
+    return ClassMetadata.of(aClass).publicMethodFor(MethodSignature.create(method)).isPresent();
+  }
+}
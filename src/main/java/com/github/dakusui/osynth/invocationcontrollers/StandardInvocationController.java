@@ -1,33 +1,67 @@
 package com.github.dakusui.osynth.invocationcontrollers;
 
 import com.github.dakusui.osynth.core.*;
+import com.github.dakusui.osynth.invocationcontrollers.MethodHandlerResolutionCache.Resolution;
+import com.github.dakusui.osynth.invocationcontrollers.MethodHandlerResolutionCache.Shape;
 
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.OptionalInt;
 
-import static com.github.dakusui.osynth.core.utils.MethodUtils.createMethodHandlerFromFallbackObject;
 import static com.github.dakusui.osynth.core.utils.MethodUtils.createMethodHandlerFromInterfaces;
+import static java.util.Objects.requireNonNull;
 
 public class StandardInvocationController extends InvocationController.Base implements InvocationController.WithCache {
-  private final Map<Method, MethodHandler> cache = createCache();
+  private final Map<Method, MethodHandler>   cache = createCache();
+  private final MethodHandlerResolutionCache resolutionCache;
+  private       Shape                        shape;
 
   public StandardInvocationController(SynthesizedObject.Descriptor descriptor) {
+    this(descriptor, MethodHandlerResolutionCache.global());
+  }
+
+  public StandardInvocationController(SynthesizedObject.Descriptor descriptor, MethodHandlerResolutionCache resolutionCache) {
     super(descriptor);
+    this.resolutionCache = requireNonNull(resolutionCache);
   }
 
   @Override
   public MethodHandler figuredOutMethodHandlerFor(Method invokedMethod) {
-    MethodSignature invokedMethodSignature = MethodSignature.create(invokedMethod);
-    return this.descriptor().methodHandlerEntries().stream()
-        .filter(me -> me.matcher().test(invokedMethod))
-        .map(MethodHandlerEntry::handler)
-        .findFirst()
-        .orElseGet(() -> createMethodHandlerFromInterfaces(descriptor().interfaces(), invokedMethodSignature)
-            .orElseGet(() -> createMethodHandlerFromFallbackObject(descriptor().fallbackObject(), invokedMethodSignature)));
+    return resolutionFor(invokedMethod).methodHandlerFor(descriptor(), invokedMethod);
+  }
+
+  /**
+   * Returns a resolution for the `invokedMethod`, which is looked up from the resolution cache.
+   *
+   * @param invokedMethod An invoked method.
+   * @return A resolution for the method.
+   */
+  protected Resolution resolutionFor(Method invokedMethod) {
+    return this.resolutionCache.resolutionFor(shape(), invokedMethod, this::resolve);
   }
 
   @Override
   public Map<Method, MethodHandler> cache() {
     return this.cache;
   }
+
+  private Resolution resolve(Method invokedMethod) {
+    OptionalInt index = this.descriptor().methodHandlerIndex().firstMatchingIndexFor(invokedMethod);
+    if (index.isPresent())
+      return Resolution.methodHandlerEntryAt(index.getAsInt());
+    return createMethodHandlerFromInterfaces(descriptor().interfaces(), MethodSignature.create(invokedMethod))
+        .map(Resolution::shared)
+        .orElseGet(Resolution::fallbackObject);
+  }
+
+  private Shape shape() {
+    // Racy single-check idiom, which this library uses for lazily computed values.
+    // The field is not volatile, so racing threads may compute a shape more than once.
+    // It is harmless, because a shape has only final fields and equal ones are computed
+    // from the same descriptor.
+    Shape ret = this.shape;
+    if (ret == null)
+      this.shape = ret = Shape.of(this.descriptor());
+    return ret;
+  }
 }
@@ -0,0 +1,150 @@
+package com.github.dakusui.osynth.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.valid8j.Requires.requireArgument;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds.
+ *
+ * Like HDR histograms, values are counted in buckets whose widths grow with the
+ * values: every power of two is split into {@value LatencyHistogram#NUM_SUB_BUCKETS}
+ * sub-buckets, so a value is recorded with a relative error of at most 12.5%.
+ *
+ * Counts are striped by threads to reduce contention among threads recording values
+ * at the same time.
+ * A stripe is allocated when a thread mapped to it records a value for the first time.
+ */
+public final class LatencyHistogram {
+  static final int NUM_SUB_BUCKETS = 8;
+
+  private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(NUM_SUB_BUCKETS);
+  private static final int NUM_BUCKETS     = (Long.SIZE - SUB_BUCKET_BITS + 1) * NUM_SUB_BUCKETS;
+  private static final int NUM_STRIPES     = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+  private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(NUM_STRIPES);
+  private final LongAdder                             sum     = new LongAdder();
+  private final LongAccumulator                       max     = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a value.
+   * A negative value is recorded as `0`.
+   *
+   * @param value A latency in nanoseconds.
+   */
+  public void record(long value) {
+    long v = Math.max(0, value);
+    stripeForCurrentThread().incrementAndGet(bucketIndexOf(v));
+    this.sum.add(v);
+    this.max.accumulate(v);
+  }
+
+  public Snapshot snapshot() {
+    long[] counts = new long[NUM_BUCKETS];
+    for (int i = 0; i < NUM_STRIPES; i++) {
+      AtomicLongArray stripe = this.stripes.get(i);
+      if (stripe == null)
+        continue;
+      for (int j = 0; j < NUM_BUCKETS; j++)
+        counts[j] += stripe.get(j);
+    }
+    return new Snapshot(counts, this.sum.sum(), this.max.get());
+  }
+
+  private AtomicLongArray stripeForCurrentThread() {
+    int index = (int) Thread.currentThread().getId() & (NUM_STRIPES - 1);
+    AtomicLongArray ret = this.stripes.get(index);
+    if (ret == null) {
+      this.stripes.compareAndSet(index, null, new AtomicLongArray(NUM_BUCKETS));
+      ret = this.stripes.get(index);
+    }
+    return ret;
+  }
+
+  static int bucketIndexOf(long value) {
+    if (value < NUM_SUB_BUCKETS)
+      return (int) value;
+    int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (NUM_SUB_BUCKETS - 1);
+    return (shift + 1) * NUM_SUB_BUCKETS + subBucket;
+  }
+
+  static long lowestValueOf(int bucketIndex) {
+    if (bucketIndex < NUM_SUB_BUCKETS)
+      return bucketIndex;
+    int shift = bucketIndex / NUM_SUB_BUCKETS - 1;
+    return (long) (NUM_SUB_BUCKETS + bucketIndex % NUM_SUB_BUCKETS) << shift;
+  }
+
+  static long highestValueOf(int bucketIndex) {
+    return bucketIndex + 1 < NUM_BUCKETS ? lowestValueOf(bucketIndex + 1) - 1 : Long.MAX_VALUE;
+  }
+
+  /**
+   * An immutable snapshot of a {@link LatencyHistogram}.
+   */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long   totalCount;
+    private final long   sum;
+    private final long   max;
+
+    private Snapshot(long[] counts, long sum, long max) {
+      long totalCount = 0;
+      for (long each : counts)
+        totalCount += each;
+      this.counts = counts;
+      this.totalCount = totalCount;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long count() {
+      return this.totalCount;
+    }
+
+    public long sum() {
+      return this.sum;
+    }
+
+    public long max() {
+      return this.max;
+    }
+
+    public double mean() {
+      return this.totalCount == 0 ? 0 : (double) this.sum / this.totalCount;
+    }
+
+    /**
+     * Returns a value, below which the given `percentile` of the recorded values fall.
+     * The returned value is the highest value of the bucket, which contains the
+     * value at the percentile, but it never exceeds the maximum recorded value.
+     *
+     * @param percentile A percentile from `0` to `100`.
+     * @return A value at the percentile, or `0` if nothing is recorded.
+     */
+    public long valueAtPercentile(double percentile) {
+      requireArgument(percentile, and(greaterThanOrEqualTo(0.0), lessThanOrEqualTo(100.0)));
+      if (this.totalCount == 0)
+        return 0;
+      long rank = Math.max(1, (long) Math.ceil(this.totalCount * percentile / 100.0));
+      long accumulated = 0;
+      for (int i = 0; i < this.counts.length; i++) {
+        accumulated += this.counts[i];
+        if (accumulated >= rank)
+          return Math.min(highestValueOf(i), this.max);
+      }
+      return this.max;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("{count=%s,mean=%.1f,p50=%s,p99=%s,max=%s}",
+          count(), mean(), valueAtPercentile(50), valueAtPercentile(99), max());
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.github.dakusui.osynth.metrics;
+
+import java.lang.reflect.Method;
+
+import static com.github.dakusui.osynth.core.utils.MethodUtils.simpleClassNameOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable snapshot of metrics of a method, collected by {@link MethodMetricsCollector}.
+ */
+public final class MethodMetrics {
+  private final Method                    method;
+  private final long                      errorCount;
+  private final LatencyHistogram.Snapshot latencies;
+
+  MethodMetrics(Method method, long errorCount, LatencyHistogram.Snapshot latencies) {
+    this.method = requireNonNull(method);
+    this.errorCount = errorCount;
+    this.latencies = requireNonNull(latencies);
+  }
+
+  public Method method() {
+    return this.method;
+  }
+
+  /**
+   * Returns the number of invocations, including ones that threw exceptions.
+   *
+   * @return The number of invocations.
+   */
+  public long callCount() {
+    return this.latencies.count();
+  }
+
+  /**
+   * Returns the number of invocations that threw exceptions.
+   *
+   * @return The number of failed invocations.
+   */
+  public long errorCount() {
+    return this.errorCount;
+  }
+
+  /**
+   * Returns the latencies of the invocations in nanoseconds.
+   *
+   * @return A snapshot of latencies.
+   */
+  public LatencyHistogram.Snapshot latencies() {
+    return this.latencies;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s.%s:{calls=%s,errors=%s,latencies[ns]=%s}",
+        simpleClassNameOf(this.method.getDeclaringClass()), this.method.getName(), callCount(), errorCount(), latencies());
+  }
+}
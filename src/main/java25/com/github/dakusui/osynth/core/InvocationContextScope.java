@@ -0,0 +1,23 @@
+package com.github.dakusui.osynth.core;
+
+/**
+ * Binds an {@link InvocationContext} to the current thread while a method handler runs.
+ *
+ * This is an implementation for JDK 25 and later based on a `ScopedValue`, which
+ * is inherited by subtasks of structured concurrency and does not cost a per-thread
+ * map entry for virtual threads.
+ */
+final class InvocationContextScope {
+  private static final ScopedValue<InvocationContext> CONTEXT = ScopedValue.newInstance();
+
+  private InvocationContextScope() {
+  }
+
+  static InvocationContext current() {
+    return CONTEXT.isBound() ? CONTEXT.get() : null;
+  }
+
+  static Object callWithin(InvocationContext context, MethodHandler methodHandler, SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+    return ScopedValue.where(CONTEXT, context).call(() -> methodHandler.handle(synthesizedObject, args));
+  }
+}
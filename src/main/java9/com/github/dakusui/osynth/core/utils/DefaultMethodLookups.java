@@ -0,0 +1,38 @@
+package com.github.dakusui.osynth.core.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import static com.github.dakusui.osynth.core.utils.MethodUtils.execute;
+
+/**
+ * Creates method handles that call default methods of interfaces.
+ *
+ * This is an implementation for JDK 9 and later, which uses `MethodHandles.privateLookupIn`
+ * and `findSpecial` instead of the private constructor of {@link MethodHandles.Lookup}.
+ *
+ * A lookup is created only once for each interface and cached in a {@link ClassValue}.
+ */
+enum DefaultMethodLookups {
+  ;
+  private static final ClassValue<MethodHandles.Lookup> LOOKUPS = new ClassValue<MethodHandles.Lookup>() {
+    @Override
+    protected MethodHandles.Lookup computeValue(Class<?> type) {
+      return execute(() -> MethodHandles.privateLookupIn(type, MethodHandles.lookup()));
+    }
+  };
+
+  static MethodHandles.Lookup lookupFor(Class<?> anInterfaceClass) {
+    return LOOKUPS.get(anInterfaceClass);
+  }
+
+  static MethodHandle methodHandleForDefaultMethod(Method method, Class<?> fromClass) {
+    return execute(() -> lookupFor(fromClass).findSpecial(
+        fromClass,
+        method.getName(),
+        MethodType.methodType(method.getReturnType(), method.getParameterTypes()),
+        fromClass));
+  }
+}
@@ -0,0 +1,119 @@
+package com.github.dakusui.osynth.ut;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.core.AutoLogger;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.isEqualTo;
+import static com.github.dakusui.pcond.forms.Predicates.isTrue;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class AllocationFreeAutoLoggingTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+
+    default String bMethod(String message) {
+      return "default:bMethod:" + aMethod(message);
+    }
+
+    default String cMethod() {
+      throw new IllegalStateException("cMethod");
+    }
+  }
+
+  static class RecordingLogger implements AutoLogger {
+    final List<String>           records = new ArrayList<>();
+    final List<AutoLogger.Entry> entries = new ArrayList<>();
+
+    @Override
+    public void log(Entry entry) {
+      this.entries.add(entry);
+      this.records.add(entry.type() + ":" + entry.methodSignature() + ":" + (entry.type() == Entry.Type.ENTER ? Arrays.toString(entry.arguments()) : entry.value()));
+    }
+  }
+
+  @Test
+  public void whenNestedMethodsInvoked$thenEntriesLoggedInOrder() {
+    RecordingLogger logger = new RecordingLogger();
+    A a = createA(logger);
+
+    assertThat(a.bMethod("hello"), isEqualTo("default:bMethod:handler:hello"));
+
+    assertThat(logger.records, isEqualTo(Arrays.asList(
+        "ENTER:bMethod(String):[hello]",
+        "ENTER:aMethod(String):[hello]",
+        "LEAVE:aMethod(String):handler:hello",
+        "LEAVE:bMethod(String):default:bMethod:handler:hello")));
+    // An entry for a nested invocation is not the one for the outer invocation.
+    assertThat(logger.entries.get(0) != logger.entries.get(1), isTrue());
+  }
+
+  @Test
+  public void whenMethodInvokedTwice$thenEntryReused() {
+    RecordingLogger logger = new RecordingLogger();
+    A a = createA(logger);
+
+    a.aMethod("hello");
+    a.aMethod("world");
+
+    assertThat(logger.records, isEqualTo(Arrays.asList(
+        "ENTER:aMethod(String):[hello]",
+        "LEAVE:aMethod(String):handler:hello",
+        "ENTER:aMethod(String):[world]",
+        "LEAVE:aMethod(String):handler:world")));
+    assertThat(logger.entries.stream().allMatch(each -> each == logger.entries.get(0)), isTrue());
+  }
+
+  @Test
+  public void whenMethodInvoked$thenMethodSignatureAlreadyComputed() {
+    List<Boolean> allocationFree = new ArrayList<>();
+    List<Boolean> regular = new ArrayList<>();
+    createA(entry -> allocationFree.add(entry.isMethodSignatureComputed())).aMethod("hello");
+    new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:" + args[0]))
+        .enableAutoLoggingWith(entry -> regular.add(entry.isMethodSignatureComputed()))
+        .synthesize()
+        .castTo(A.class)
+        .aMethod("hello");
+
+    assertThat(allocationFree, isEqualTo(Arrays.asList(true, true)));
+    assertThat(regular, isEqualTo(Arrays.asList(false, false)));
+  }
+
+  @Test
+  public void givenLoggerOnlyForExceptions$whenExceptionThrown$thenOnlyExceptionLogged() {
+    RecordingLogger logger = new RecordingLogger() {
+      @Override
+      public boolean isEnabledFor(Entry.Type type, Method method) {
+        return type == Entry.Type.EXCEPTION;
+      }
+    };
+    A a = createA(logger);
+
+    a.aMethod("hello");
+    try {
+      a.cMethod();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), isEqualTo("cMethod"));
+    }
+
+    assertThat(logger.records, isEqualTo(Arrays.asList("EXCEPTION:cMethod():java.lang.IllegalStateException: cMethod")));
+  }
+
+  private static A createA(AutoLogger logger) {
+    return new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:" + args[0]))
+        .enableAllocationFreeAutoLoggingWith(logger)
+        .synthesize()
+        .castTo(A.class);
+  }
+}
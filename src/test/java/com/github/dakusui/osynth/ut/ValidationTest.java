@@ -4,6 +4,7 @@ import com.github.dakusui.osynth.ut.core.utils.UtBase;
 import com.github.dakusui.osynth.ObjectSynthesizer;
 import com.github.dakusui.osynth.core.MethodHandler;
 import com.github.dakusui.osynth.core.MethodHandlerDecorator;
+import com.github.dakusui.osynth.core.MethodHandlerEntry;
 import com.github.dakusui.osynth.core.SynthesizedObject;
 import com.github.dakusui.osynth.exceptions.ValidationException;
 import com.github.dakusui.osynth.ut.core.utils.UtBase;
@@ -15,6 +16,7 @@ import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
 import static com.github.dakusui.pcond.fluent.Fluents.objectValue;
 import static com.github.dakusui.pcond.forms.Predicates.allOf;
 import static com.github.dakusui.pcond.forms.Predicates.containsString;
+import static com.github.dakusui.pcond.forms.Predicates.isEqualTo;
 import static com.github.dakusui.thincrest.TestAssertions.assertThat;
 import static com.github.dakusui.thincrest.TestFluents.assertStatement;
 import static java.lang.String.format;
@@ -89,6 +91,38 @@ public class ValidationTest extends UtBase {
     }
   }
 
+  @Test(expected = ValidationException.class)
+  public void givenLightweightValidation$whenOneReservedMethodTriedOverridden$thenExceptionThrown() {
+    try {
+      SynthesizedObject synthesizedObject = new ObjectSynthesizer()
+          .enableLightweightValidation()
+          .fallbackTo(new Object())
+          .handle(methodCall("descriptor").with(createNewDescriptorReturningHandler()))
+          .synthesize();
+      System.out.println(synthesizedObject);
+    } catch (RuntimeException e) {
+      e.printStackTrace();
+      assertThat(e.getMessage(), allOf(
+          containsString("Reserved methods cannot be overridden"),
+          containsString("descriptor()")
+      ));
+      throw e;
+    }
+  }
+
+  @Test
+  public void givenLightweightValidation$whenSameEntrySynthesizedTwice$thenPass() {
+    MethodHandlerEntry entry = methodCall("testMethod", String.class).with((sobj, args) -> "handled[" + args[0] + "]");
+    for (int i = 0; i < 2; i++) {
+      SynthesizedObject synthesizedObject = new ObjectSynthesizer()
+          .enableLightweightValidation()
+          .addInterface(TestInterface.class)
+          .handle(entry)
+          .synthesize();
+      assertThat(synthesizedObject.castTo(TestInterface.class).testMethod("Hello!"), isEqualTo("handled[Hello!]"));
+    }
+  }
+
   public interface TestInterface {
     default String testMethod(String message) {
       return "testMethod[" + message + "]";
@@ -0,0 +1,226 @@
+package com.github.dakusui.osynth.ut.autologgers;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.autologgers.AsyncAutoLogger;
+import com.github.dakusui.osynth.autologgers.AsyncAutoLogger.OverflowPolicy;
+import com.github.dakusui.osynth.core.AutoLogger;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class AsyncAutoLoggerTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+  }
+
+  @Test
+  public void whenMethodsInvoked$thenEntriesEmittedInOrderOnAnotherThread() {
+    List<String> out = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+    try (AsyncAutoLogger autoLogger = new AsyncAutoLogger.Builder(entry -> {
+      threads.add(Thread.currentThread());
+      out.add(entry.type() + ":" + entry.methodSignature() + ":" + (entry.type() == AutoLogger.Entry.Type.ENTER ? Arrays.toString(entry.arguments()) : entry.value()));
+    }).build()) {
+      for (boolean allocationFree : new boolean[] { false, true }) {
+        ObjectSynthesizer synthesizer = new ObjectSynthesizer()
+            .addInterface(A.class)
+            .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:" + args[0]));
+        A a = (allocationFree ? synthesizer.enableAllocationFreeAutoLoggingWith(autoLogger) : synthesizer.enableAutoLoggingWith(autoLogger))
+            .synthesize()
+            .castTo(A.class);
+        a.aMethod("hello");
+      }
+      autoLogger.flush();
+
+      assertThat(out, isEqualTo(Arrays.asList(
+          "ENTER:aMethod(String):[hello]",
+          "LEAVE:aMethod(String):handler:hello",
+          "ENTER:aMethod(String):[hello]",
+          "LEAVE:aMethod(String):handler:hello")));
+      assertThat(threads.contains(Thread.currentThread()), isFalse());
+      assertThat(autoLogger.emittedCount(), isEqualTo(4L));
+      assertThat(autoLogger.droppedCount(), isEqualTo(0L));
+    }
+  }
+
+  @Test
+  public void givenDropPolicy$whenBufferFull$thenEntriesDroppedAndCounted() {
+    CountDownLatch latch = new CountDownLatch(1);
+    try (AsyncAutoLogger autoLogger = new AsyncAutoLogger.Builder(entry -> await(latch))
+        .capacity(4)
+        .overflowPolicy(OverflowPolicy.DROP)
+        .build()) {
+      A a = createA(autoLogger);
+      for (int i = 0; i < 50; i++)
+        a.aMethod("hello");
+      latch.countDown();
+      autoLogger.flush();
+
+      assertThat(autoLogger.droppedCount() > 0, isTrue());
+      assertThat(autoLogger.publishedCount() + autoLogger.droppedCount(), isEqualTo(100L));
+      assertThat(autoLogger.emittedCount(), isEqualTo(autoLogger.publishedCount()));
+    }
+  }
+
+  @Test
+  public void givenBlockPolicy$whenBufferFull$thenNothingDropped() {
+    List<String> out = Collections.synchronizedList(new ArrayList<>());
+    try (AsyncAutoLogger autoLogger = new AsyncAutoLogger.Builder(entry -> out.add(entry.type().toString()))
+        .capacity(4)
+        .overflowPolicy(OverflowPolicy.BLOCK)
+        .build()) {
+      A a = createA(autoLogger);
+      for (int i = 0; i < 50; i++)
+        a.aMethod("hello");
+      autoLogger.flush();
+
+      assertThat(autoLogger.droppedCount(), isEqualTo(0L));
+      assertThat(out.size(), isEqualTo(100));
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void givenBlockPolicyAndSlowDownstream$whenBufferFull$thenNothingDropped() {
+    List<String> out = Collections.synchronizedList(new ArrayList<>());
+    try (AsyncAutoLogger autoLogger = new AsyncAutoLogger.Builder(entry -> {
+      sleep(1);
+      out.add(entry.methodSignature());
+    })
+        .capacity(4)
+        .overflowPolicy(OverflowPolicy.BLOCK)
+        .build()) {
+      A a = new ObjectSynthesizer()
+          .addInterface(A.class)
+          .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:" + args[0]))
+          .enableAutoLoggingWith(autoLogger)
+          .synthesize()
+          .castTo(A.class);
+      for (int i = 0; i < 20; i++)
+        a.aMethod("hello");
+      autoLogger.flush();
+
+      assertThat(autoLogger.droppedCount(), isEqualTo(0L));
+      assertThat(out.size(), isEqualTo(40));
+      assertThat(out.get(39), isEqualTo("aMethod(String)"));
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void givenBlockPolicyAndDownstreamThrowingError$whenBufferFull$thenNotBlockedAndFailuresCounted() {
+    try (AsyncAutoLogger autoLogger = new AsyncAutoLogger.Builder(entry -> {
+      throw new AssertionError("Intentional");
+    })
+        .capacity(4)
+        .overflowPolicy(OverflowPolicy.BLOCK)
+        .build()) {
+      A a = createA(autoLogger);
+      for (int i = 0; i < 50; i++)
+        a.aMethod("hello");
+      autoLogger.flush();
+
+      assertThat(autoLogger.failureCount(), isEqualTo(100L));
+      assertThat(autoLogger.emittedCount(), isEqualTo(0L));
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void givenBlockPolicy$whenEntryThrows$thenExceptionPropagatedAndLaterEntriesNotBlocked() {
+    List<String> out = Collections.synchronizedList(new ArrayList<>());
+    try (AsyncAutoLogger autoLogger = new AsyncAutoLogger.Builder(entry -> out.add(entry.type().toString()))
+        .capacity(4)
+        .overflowPolicy(OverflowPolicy.BLOCK)
+        .build()) {
+      for (int i = 0; i < 8; i++) {
+        try {
+          autoLogger.log(new AutoLogger.Entry() {
+            @Override
+            public Type type() {
+              return Type.LEAVE;
+            }
+
+            @Override
+            public Object object() {
+              return null;
+            }
+
+            @Override
+            public Method method() {
+              return null;
+            }
+
+            @Override
+            public Object value() {
+              throw new IllegalStateException("Intentional");
+            }
+          });
+          throw new AssertionError("An exception should have been thrown");
+        } catch (IllegalStateException e) {
+          assertThat(e.getMessage(), isEqualTo("Intentional"));
+        }
+      }
+      A a = createA(autoLogger);
+      for (int i = 0; i < 10; i++)
+        a.aMethod("hello");
+      autoLogger.flush();
+
+      assertThat(autoLogger.droppedCount(), isEqualTo(0L));
+      assertThat(out.size(), isEqualTo(20));
+    }
+  }
+
+  @Test
+  public void givenSamplePolicy$whenBufferUnderPressure$thenSomeEntriesAccepted() {
+    CountDownLatch latch = new CountDownLatch(1);
+    try (AsyncAutoLogger autoLogger = new AsyncAutoLogger.Builder(entry -> await(latch))
+        .capacity(64)
+        .overflowPolicy(OverflowPolicy.SAMPLE)
+        .samplingInterval(4)
+        .build()) {
+      A a = createA(autoLogger);
+      for (int i = 0; i < 50; i++)
+        a.aMethod("hello");
+      latch.countDown();
+      autoLogger.flush();
+
+      // The first half of the buffer is filled without sampling, then one of four entries is accepted.
+      assertThat(autoLogger.publishedCount() > 32, isTrue());
+      assertThat(autoLogger.publishedCount() < 64, isTrue());
+      assertThat(autoLogger.publishedCount() + autoLogger.droppedCount(), isEqualTo(100L));
+    }
+  }
+
+  private static A createA(AutoLogger autoLogger) {
+    return new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:" + args[0]))
+        .enableAllocationFreeAutoLoggingWith(autoLogger)
+        .synthesize()
+        .castTo(A.class);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
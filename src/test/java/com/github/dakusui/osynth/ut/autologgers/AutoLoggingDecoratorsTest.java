@@ -0,0 +1,109 @@
+package com.github.dakusui.osynth.ut.autologgers;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.autologgers.AutoLoggingDecorators;
+import com.github.dakusui.osynth.core.AutoLogger;
+import com.github.dakusui.osynth.core.MethodHandlerDecorator;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class AutoLoggingDecoratorsTest extends UtBase {
+  public interface A {
+    String fastMethod(String message);
+
+    String slowMethod(String message);
+  }
+
+  final List<String> out = new ArrayList<>();
+
+  final AutoLogger autoLogger = entry -> out.add(entry.type() + ":" + entry.method().getName());
+
+  @Test
+  public void givenSamplingWithFractionZero$whenInvoked$thenNothingLogged() {
+    A a = createA(AutoLoggingDecorators.sampling(autoLogger, 0.0));
+    for (int i = 0; i < 10; i++)
+      a.fastMethod("hello");
+
+    assertThat(out.isEmpty(), isTrue());
+  }
+
+  @Test
+  public void givenSamplingWithFractionOne$whenInvoked$thenEverythingLogged() {
+    A a = createA(AutoLoggingDecorators.sampling(autoLogger, 1.0));
+    for (int i = 0; i < 10; i++)
+      a.fastMethod("hello");
+
+    assertThat(out.size(), isEqualTo(20));
+  }
+
+  @Test
+  public void givenRateLimited$whenInvokedManyTimes$thenLimitedPerMethod() {
+    A a = createA(AutoLoggingDecorators.rateLimited(autoLogger, 3));
+    for (int i = 0; i < 10; i++) {
+      a.fastMethod("hello");
+      a.slowMethod("hello");
+    }
+
+    assertThat(out.stream().filter(each -> each.endsWith("fastMethod")).count(), isEqualTo(6L));
+    assertThat(out.stream().filter(each -> each.endsWith("slowMethod")).count(), isEqualTo(6L));
+  }
+
+  @Test
+  public void givenRateLimited$whenInvokedConcurrently$thenNeverExceedsLimit() throws InterruptedException {
+    LongAdder numEntries = new LongAdder();
+    A a = createA(AutoLoggingDecorators.rateLimited(entry -> numEntries.increment(), 5));
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 1000; j++)
+          a.fastMethod("hello");
+      });
+      threads[i].start();
+    }
+    for (Thread each : threads)
+      each.join();
+
+    assertThat(numEntries.sum(), isEqualTo(10L));
+  }
+
+  @Test
+  public void givenLatencyThreshold$whenInvoked$thenOnlySlowInvocationsLogged() {
+    A a = createA(AutoLoggingDecorators.latencyThreshold(autoLogger, 20, TimeUnit.MILLISECONDS));
+    a.fastMethod("hello");
+    a.slowMethod("hello");
+
+    assertThat(out, isEqualTo(Arrays.asList("ENTER:slowMethod", "LEAVE:slowMethod")));
+  }
+
+  @Test
+  public void givenDecoratorComposed$whenToStringCalled$thenNotLogged() {
+    A a = createA(AutoLoggingDecorators.sampling(autoLogger, 1.0).andThen(MethodHandlerDecorator.IDENTITY));
+    a.fastMethod("hello");
+    String ignored = a.toString();
+
+    assertThat(out, isEqualTo(Arrays.asList("ENTER:fastMethod", "LEAVE:fastMethod")));
+  }
+
+  private static A createA(MethodHandlerDecorator decorator) {
+    return new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("fastMethod", String.class).with((synthesizedObject, args) -> "fast:" + args[0]))
+        .handle(methodCall("slowMethod", String.class).with((synthesizedObject, args) -> {
+          Thread.sleep(50);
+          return "slow:" + args[0];
+        }))
+        .methodHandlerDecorator(decorator)
+        .synthesize()
+        .castTo(A.class);
+  }
+}
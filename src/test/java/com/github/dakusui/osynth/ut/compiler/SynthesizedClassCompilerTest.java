@@ -0,0 +1,300 @@
+package com.github.dakusui.osynth.ut.compiler;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.compiler.SynthesizedClassCompiler;
+import com.github.dakusui.osynth.compiler.SynthesizedClassCompiler.CompiledClass;
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class SynthesizedClassCompilerTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+
+    int add(int a, long b);
+
+    void run();
+
+    String fallbackMethod(double value);
+
+    default String defaultMethod(String message) {
+      return "default:" + aMethod(message);
+    }
+  }
+
+  public static class Fallback implements A {
+    @Override
+    public String aMethod(String message) {
+      return "fallback:aMethod:" + message;
+    }
+
+    @Override
+    public int add(int a, long b) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void run() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String fallbackMethod(double value) {
+      return "fallback:" + value;
+    }
+
+    @Override
+    public String toString() {
+      return "Fallback";
+    }
+  }
+
+  public interface B {
+    String concat(String a, String b, String c, String d);
+
+    String twice(String message);
+  }
+
+  public interface C {
+    int increment(int value);
+
+    long add(long a, long b);
+
+    double half(double value);
+  }
+
+  interface NonPublic {
+    String hello();
+  }
+
+  @Test
+  public void whenCompiledSynthesisEnabled$thenGeneratedClassInstantiated() {
+    StringBuilder b = new StringBuilder();
+    A a = createA(b);
+
+    assertThat(Proxy.isProxyClass(a.getClass()), isFalse());
+    assertThat(a.aMethod("hello"), isEqualTo("handler:aMethod:hello"));
+    assertThat(a.add(1, 2L), isEqualTo(3));
+    a.run();
+    assertThat(b.toString(), isEqualTo("run:run"));
+    assertThat(a.fallbackMethod(1.5), isEqualTo("fallback:1.5"));
+    assertThat(a.defaultMethod("world"), isEqualTo("default:handler:aMethod:world"));
+  }
+
+  @Test
+  public void whenCompiledSynthesisEnabled$thenBuiltInMethodsWork() {
+    A a = createA(new StringBuilder());
+
+    assertThat(a, isInstanceOf(SynthesizedObject.class));
+    assertThat(((SynthesizedObject) a).castTo(A.class), isSameReferenceAs(a));
+    assertThat(((SynthesizedObject) a).descriptor().fallbackObject().toString(), isEqualTo("Fallback"));
+    assertThat(a.equals(a), isTrue());
+    assertThat(a.hashCode(), isEqualTo(a.hashCode()));
+  }
+
+  @Test
+  public void givenTwoObjects$whenCompiledSynthesisEnabled$thenClassShared() {
+    A a1 = createA(new StringBuilder());
+    A a2 = createA(new StringBuilder());
+
+    assertThat(a1.getClass(), isSameReferenceAs(a2.getClass()));
+  }
+
+  @Test(timeout = 30_000)
+  public void givenClassLoaderOfInterfaceParent$whenCompiled$thenClassLoaderNotPinned() throws InterruptedException {
+    WeakReference<ClassLoader> classLoader = compileWithThrowawayClassLoader();
+    while (classLoader.get() != null) {
+      System.gc();
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void givenNonPublicInterface$whenCompiledSynthesisEnabled$thenGeneratedNextToIt() {
+    NonPublic nonPublic = new ObjectSynthesizer()
+        .addInterface(NonPublic.class)
+        .handle(methodCall("hello").with((synthesizedObject, args) -> "hello"))
+        .enableCompiledSynthesis()
+        .synthesize()
+        .castTo(NonPublic.class);
+
+    assertThat(Proxy.isProxyClass(nonPublic.getClass()), isFalse());
+    assertThat(nonPublic.getClass().getPackage().getName(), isEqualTo(NonPublic.class.getPackage().getName()));
+    assertThat(nonPublic.hello(), isEqualTo("hello"));
+  }
+
+  @Test
+  public void givenArityHandlers$whenCompiledSynthesisEnabled$thenCalledWithoutArgumentArray() {
+    MethodHandler.Handler1 twice = new MethodHandler.Handler1() {
+      @Override
+      public Object handle(SynthesizedObject synthesizedObject, Object arg0) {
+        return arg0 + ":" + arg0;
+      }
+
+      @Override
+      public Object handle(SynthesizedObject synthesizedObject, Object[] args) {
+        throw new UnsupportedOperationException("An argument array was created.");
+      }
+    };
+    B b = new ObjectSynthesizer()
+        .addInterface(B.class)
+        .handle(methodCall("concat", String.class, String.class, String.class, String.class).with((synthesizedObject, args) -> "" + args[0] + args[1] + args[2] + args[3]))
+        .handle(methodCall("twice", String.class).with1(twice))
+        .enableCompiledSynthesis()
+        .synthesize()
+        .castTo(B.class);
+
+    assertThat(b.twice("hello"), isEqualTo("hello:hello"));
+    assertThat(b.concat("a", "b", "c", "d"), isEqualTo("abcd"));
+  }
+
+  @Test
+  public void givenArityHandlerAndDecorator$whenCompiledSynthesisEnabled$thenCalledWithArgumentArray() {
+    List<String> out = new ArrayList<>();
+    MethodHandler.Handler1 twice = new MethodHandler.Handler1() {
+      @Override
+      public Object handle(SynthesizedObject synthesizedObject, Object arg0) {
+        out.add("handle1");
+        return arg0 + ":" + arg0;
+      }
+
+      @Override
+      public Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+        out.add("handleWithArray");
+        return MethodHandler.Handler1.super.handle(synthesizedObject, args);
+      }
+    };
+    B b = new ObjectSynthesizer()
+        .addInterface(B.class)
+        .handle(methodCall("twice", String.class).with1(twice))
+        .methodHandlerDecorator((method, methodHandler) -> (synthesizedObject, args) -> methodHandler.handle(synthesizedObject, args))
+        .enableCompiledSynthesis()
+        .synthesize()
+        .castTo(B.class);
+
+    assertThat(b.twice("hello"), isEqualTo("hello:hello"));
+    assertThat(out, isEqualTo(Arrays.asList("handleWithArray", "handle1")));
+  }
+
+  @Test
+  public void givenArityHandlers$whenProxyUsed$thenWorks() {
+    A a = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with1((synthesizedObject, message) -> "handler1:" + message))
+        .handle(methodCall("add", int.class, long.class).with2((synthesizedObject, x, y) -> (int) ((Integer) x + (Long) y)))
+        .handle(methodCall("run").with0(synthesizedObject -> null))
+        .fallbackTo(new Fallback())
+        .synthesize()
+        .castTo(A.class);
+
+    a.run();
+    assertThat(a.aMethod("hello"), isEqualTo("handler1:hello"));
+    assertThat(a.add(1, 2L), isEqualTo(3));
+  }
+
+  @Test
+  public void givenPrimitiveHandlers$whenCompiledSynthesisEnabled$thenCalledWithoutBoxing() {
+    MethodHandler.IntUnaryHandler increment = new MethodHandler.IntUnaryHandler() {
+      @Override
+      public int handleAsInt(SynthesizedObject synthesizedObject, int arg0) {
+        return arg0 + 1;
+      }
+
+      @Override
+      public Object handle(SynthesizedObject synthesizedObject, Object[] args) {
+        throw new UnsupportedOperationException("Values were boxed.");
+      }
+    };
+    C c = new ObjectSynthesizer()
+        .addInterface(C.class)
+        .handle(methodCall("increment", int.class).withIntUnary(increment))
+        .handle(methodCall("add", long.class, long.class).withLongBinary((synthesizedObject, a, b) -> a + b))
+        .handle(methodCall("half", double.class).with((synthesizedObject, args) -> (Double) args[0] / 2))
+        .enableCompiledSynthesis()
+        .synthesize()
+        .castTo(C.class);
+
+    assertThat(c.increment(1), isEqualTo(2));
+    assertThat(c.add(1L, Long.MAX_VALUE - 1), isEqualTo(Long.MAX_VALUE));
+    assertThat(c.half(3.0), isEqualTo(1.5));
+  }
+
+  @Test
+  public void givenPrimitiveHandlerAndDecorator$whenCompiledSynthesisEnabled$thenCalledWithBoxedValues() {
+    List<String> out = new ArrayList<>();
+    MethodHandler.IntUnaryHandler increment = new MethodHandler.IntUnaryHandler() {
+      @Override
+      public int handleAsInt(SynthesizedObject synthesizedObject, int arg0) {
+        out.add("handleAsInt");
+        return arg0 + 1;
+      }
+
+      @Override
+      public Object handle(SynthesizedObject synthesizedObject, Object[] args) throws Throwable {
+        out.add("handleWithBoxedValues");
+        return MethodHandler.IntUnaryHandler.super.handle(synthesizedObject, args);
+      }
+    };
+    C c = new ObjectSynthesizer()
+        .addInterface(C.class)
+        .handle(methodCall("increment", int.class).withIntUnary(increment))
+        .methodHandlerDecorator((method, methodHandler) -> (synthesizedObject, args) -> methodHandler.handle(synthesizedObject, args))
+        .enableCompiledSynthesis()
+        .synthesize()
+        .castTo(C.class);
+
+    assertThat(c.increment(1), isEqualTo(2));
+    assertThat(out, isEqualTo(Arrays.asList("handleWithBoxedValues", "handleAsInt")));
+  }
+
+  @Test
+  public void givenPrimitiveHandlers$whenProxyUsed$thenWorks() {
+    C c = new ObjectSynthesizer()
+        .addInterface(C.class)
+        .handle(methodCall("increment", int.class).withIntUnary((synthesizedObject, value) -> value + 1))
+        .handle(methodCall("add", long.class, long.class).withLongBinary((synthesizedObject, a, b) -> a + b))
+        .handle(methodCall("half", double.class).withDoubleUnary((synthesizedObject, value) -> value / 2))
+        .synthesize()
+        .castTo(C.class);
+
+    assertThat(c.increment(1), isEqualTo(2));
+    assertThat(c.add(1L, 2L), isEqualTo(3L));
+    assertThat(c.half(3.0), isEqualTo(1.5));
+  }
+
+  private static WeakReference<ClassLoader> compileWithThrowawayClassLoader() {
+    ClassLoader classLoader = new ClassLoader(SynthesizedClassCompilerTest.class.getClassLoader()) {
+    };
+    Optional<CompiledClass> compiledClass = SynthesizedClassCompiler.compile(classLoader, new Class<?>[] { A.class, SynthesizedObject.class });
+
+    assertThat(compiledClass.isPresent(), isTrue());
+    return new WeakReference<>(classLoader);
+  }
+
+  private static A createA(StringBuilder b) {
+    return new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:aMethod:" + args[0]))
+        .handle(methodCall("add", int.class, long.class).with((synthesizedObject, args) -> (int) ((Integer) args[0] + (Long) args[1])))
+        .handle(methodCall("run").with((invokedMethod, synthesizedObject, args) -> {
+          b.append("run:").append(invokedMethod.getName());
+          return null;
+        }))
+        .fallbackTo(new Fallback())
+        .enableCompiledSynthesis()
+        .synthesize()
+        .castTo(A.class);
+  }
+}
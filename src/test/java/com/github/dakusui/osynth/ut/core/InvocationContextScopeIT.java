@@ -0,0 +1,79 @@
+package com.github.dakusui.osynth.ut.core;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.core.InvocationContext;
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.osynth.ut.core.utils.UtUtils.javaFeatureVersion;
+import static com.github.dakusui.osynth.ut.core.utils.UtUtils.majorVersionOf;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs against the packaged multi-release jar by `maven-failsafe-plugin`, like `DefaultMethodLookupsIT`.
+ * On JDK 25 and later, the `ScopedValue` based `InvocationContextScope` under
+ * `META-INF/versions/25` is exercised, otherwise, the `ThreadLocal` based one is.
+ */
+public class InvocationContextScopeIT extends UtBase {
+  public interface A {
+    String outer();
+
+    String inner();
+  }
+
+  @Test
+  public void whenRunOnJdk25OrLater$thenScopedValueVariantLoaded() throws IOException {
+    assumeTrue(javaFeatureVersion() >= 25);
+
+    assertThat(SynthesizedObject.class.getProtectionDomain().getCodeSource().getLocation().getPath(), endsWith(".jar"));
+    // A class compiled with `release` 25 has the major version 69.
+    assertThat(majorVersionOf("/com/github/dakusui/osynth/core/InvocationContextScope.class"), isEqualTo(69));
+  }
+
+  @Test
+  public void givenNestedInvocations$whenInnerReturns$thenOuterContextRestoredAndNothingRetained() throws NoSuchMethodException {
+    Method outer = A.class.getMethod("outer");
+    Method inner = A.class.getMethod("inner");
+    A a = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("outer").with(InvocationContext.withContextFor(outer, (synthesizedObject, args) -> {
+          String before = invokedMethodName();
+          String during = synthesizedObject.castTo(A.class).inner();
+          String after = invokedMethodName();
+          return before + "," + during + "," + after;
+        })))
+        .handle(methodCall("inner").with(InvocationContext.withContextFor(inner, (synthesizedObject, args) -> invokedMethodName())))
+        .synthesize()
+        .castTo(A.class);
+
+    assertThat(a.outer(), isEqualTo("outer,inner,outer"));
+    assertThat(InvocationContext.current().isPresent(), isFalse());
+  }
+
+  @Test
+  public void givenContext$whenHandlerThrows$thenNothingRetained() throws Throwable {
+    MethodHandler handler = InvocationContext.withContextFor(A.class.getMethod("outer"), (synthesizedObject, args) -> {
+      throw new IllegalStateException(invokedMethodName());
+    });
+    try {
+      handler.handle(null, new Object[0]);
+      throw new AssertionError("IllegalStateException was not thrown.");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), isEqualTo("outer"));
+    }
+
+    assertThat(InvocationContext.current().isPresent(), isFalse());
+  }
+
+  private static String invokedMethodName() {
+    return InvocationContext.forCurrentThread().invokedMethod().getName();
+  }
+}
@@ -0,0 +1,60 @@
+package com.github.dakusui.osynth.ut.core;
+
+import com.github.dakusui.osynth.core.InvocationContext;
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class InvocationContextTest extends UtBase {
+  public interface A {
+    String outer();
+
+    String inner();
+  }
+
+  @Test
+  public void givenNestedContexts$whenInnerReturns$thenOuterRestored() throws Throwable {
+    Method outer = A.class.getMethod("outer");
+    Method inner = A.class.getMethod("inner");
+    MethodHandler innerHandler = InvocationContext.withContextFor(inner, (synthesizedObject, args) -> InvocationContext.forCurrentThread().invokedMethod().getName());
+    MethodHandler outerHandler = InvocationContext.withContextFor(outer, (synthesizedObject, args) -> {
+      String before = InvocationContext.forCurrentThread().invokedMethod().getName();
+      String during = (String) innerHandler.handle(synthesizedObject, args);
+      String after = InvocationContext.forCurrentThread().invokedMethod().getName();
+      return before + "," + during + "," + after;
+    });
+
+    assertThat(outerHandler.handle(null, new Object[0]), isEqualTo("outer,inner,outer"));
+    assertThat(InvocationContext.current().isPresent(), isFalse());
+  }
+
+  @Test
+  public void givenContext$whenHandlerThrows$thenNothingRetained() throws Throwable {
+    MethodHandler handler = InvocationContext.withContextFor(A.class.getMethod("outer"), (synthesizedObject, args) -> {
+      throw new IllegalStateException();
+    });
+    try {
+      handler.handle(null, new Object[0]);
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    assertThat(InvocationContext.current().isPresent(), isFalse());
+  }
+
+  @Test
+  public void givenNoContext$whenForCurrentThread$thenIllegalStateExceptionSuggestingMethodAware() {
+    try {
+      InvocationContext.forCurrentThread();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), containsString("MethodHandler.MethodAware"));
+      return;
+    }
+    throw new AssertionError("IllegalStateException was not thrown.");
+  }
+}
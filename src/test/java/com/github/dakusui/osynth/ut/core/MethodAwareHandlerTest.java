@@ -0,0 +1,74 @@
+package com.github.dakusui.osynth.ut.core;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.core.InvocationContext;
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class MethodAwareHandlerTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+
+    String bMethod(String message);
+  }
+
+  public static class Impl implements A {
+    @Override
+    public String aMethod(String message) {
+      return "impl:aMethod:" + message;
+    }
+
+    @Override
+    public String bMethod(String message) {
+      return "impl:bMethod:" + message;
+    }
+  }
+
+  @Test
+  public void givenMethodAwareHandler$whenInvoked$thenInvokedMethodGiven() {
+    A a = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with((invokedMethod, synthesizedObject, args) -> invokedMethod.getName() + ":" + args[0]))
+        .synthesize()
+        .castTo(A.class);
+
+    assertThat(a.aMethod("hello"), isEqualTo("aMethod:hello"));
+  }
+
+  @Test
+  public void givenDelegation$whenInvokedOnNewThread$thenNoInvocationContextLeftBehind() throws InterruptedException {
+    A a = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).delegatingTo(new Impl()))
+        .handle(methodCall("bMethod", String.class).delegatingTo(new Impl()))
+        .synthesize()
+        .castTo(A.class);
+    AtomicReference<Object> result = new AtomicReference<>();
+    AtomicReference<Object> context = new AtomicReference<>();
+    Thread thread = new Thread(() -> {
+      result.set(a.aMethod("hello") + "," + a.bMethod("world"));
+      context.set(InvocationContext.current().orElse(null));
+    });
+    thread.start();
+    thread.join();
+
+    assertThat(result.get(), isEqualTo("impl:aMethod:hello,impl:bMethod:world"));
+    assertThat(context.get(), isNull());
+  }
+
+  @Test
+  public void givenUnboundMethodAwareHandler$whenCalledWithContext$thenMethodFromContextGiven() throws Throwable {
+    Method method = A.class.getMethod("aMethod", String.class);
+    MethodHandler.MethodAware handler = (invokedMethod, synthesizedObject, args) -> invokedMethod.getName();
+
+    assertThat(InvocationContext.withContextFor(method, handler).handle(null, new Object[0]), isEqualTo("aMethod"));
+  }
+}
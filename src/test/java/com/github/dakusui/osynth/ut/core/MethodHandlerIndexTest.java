@@ -0,0 +1,81 @@
+package com.github.dakusui.osynth.ut.core;
+
+import com.github.dakusui.osynth.core.MethodHandlerEntry;
+import com.github.dakusui.osynth.core.MethodHandlerIndex;
+import com.github.dakusui.osynth.core.MethodMatcher;
+import com.github.dakusui.osynth.core.MethodSignature;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.*;
+import static com.github.dakusui.pcond.forms.Predicates.isEqualTo;
+import static com.github.dakusui.pcond.forms.Predicates.isFalse;
+import static com.github.dakusui.pcond.forms.Predicates.isTrue;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class MethodHandlerIndexTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+
+    String aMethod(int value);
+
+    String bMethod(String message);
+  }
+
+  @Test
+  public void givenMatchingExactly$whenExactNameAndParameterTypes$thenExposed() {
+    MethodMatcher matcher = matchingExactly(MethodSignature.create("aMethod", String.class));
+
+    assertThat(matcher.exactName().orElse(null), isEqualTo("aMethod"));
+    assertThat(matcher.exactParameterTypes().orElse(null), isEqualTo(Arrays.<Class<?>>asList(String.class)));
+  }
+
+  @Test
+  public void givenParameterTypesMatchingExactly$whenArrayModifiedLater$thenMatcherUnchanged() throws NoSuchMethodException {
+    Class<?>[] parameterTypes = { String.class };
+    MethodMatcher matcher = parameterTypesMatchingExactly(parameterTypes);
+    parameterTypes[0] = int.class;
+
+    assertThat(matcher.test(A.class.getMethod("aMethod", String.class)), isTrue());
+    assertThat(matcher.exactParameterTypes().orElse(null), isEqualTo(Arrays.<Class<?>>asList(String.class)));
+  }
+
+  @Test
+  public void givenNegatedMatcher$whenExactName$thenNotExposed() {
+    MethodMatcher matcher = nameMatchingExactly("aMethod").negate();
+
+    assertThat(matcher.exactName().isPresent(), isFalse());
+  }
+
+  @Test
+  public void givenMixedEntries$whenFirstMatchingIndexFor$thenSameAsLinearScan() throws NoSuchMethodException {
+    List<MethodHandlerEntry> entries = Arrays.asList(
+        entryFor(nameMatchingExactly("bMethod")),
+        entryFor(matchingExactly(MethodSignature.create("aMethod", int.class))),
+        entryFor(nameMatchingRegex("a.*")),
+        entryFor(matchingExactly(MethodSignature.create("aMethod", String.class))),
+        entryFor(nameMatchingExactly("aMethod")));
+    MethodHandlerIndex index = MethodHandlerIndex.create(entries);
+
+    for (Method each : A.class.getMethods())
+      assertThat(index.firstMatchingIndexFor(each), isEqualTo(linearScan(entries, each)));
+    assertThat(index.firstMatchingIndexFor(A.class.getMethod("aMethod", String.class)), isEqualTo(OptionalInt.of(2)));
+    assertThat(index.firstMatchingIndexFor(Object.class.getMethod("toString")), isEqualTo(OptionalInt.empty()));
+  }
+
+  private static MethodHandlerEntry entryFor(MethodMatcher matcher) {
+    return methodCall(matcher).with((synthesizedObject, args) -> matcher.toString());
+  }
+
+  private static OptionalInt linearScan(List<MethodHandlerEntry> entries, Method method) {
+    for (int i = 0; i < entries.size(); i++)
+      if (entries.get(i).matcher().test(method))
+        return OptionalInt.of(i);
+    return OptionalInt.empty();
+  }
+}
@@ -9,6 +9,8 @@ import org.junit.Test;
 
 import java.io.PrintStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
 import static com.github.dakusui.pcond.forms.Predicates.*;
@@ -105,4 +107,121 @@ public class SynthesizedObjectTest {
 
     assertThat(a.descriptor(), not(isEqualTo(b.descriptor())));
   }
+
+  @Test
+  public void castToSuperInterfaceRepeatedly() {
+    SynthesizedObject a = new ObjectSynthesizer().addInterface(Serializable.class).synthesize();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(a.castTo(Serializable.class), isSameReferenceAs(a));
+      assertThat(a.castTo(Object.class), isSameReferenceAs(a));
+    }
+    assertThat(a.descriptor().isCastableTo(Serializable.class), isTrue());
+    assertThat(a.descriptor().isCastableTo(Runnable.class), isFalse());
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void castToUnavailableInterfaceTwice() {
+    SynthesizedObject a = new ObjectSynthesizer().addInterface(Serializable.class).synthesize();
+    try {
+      a.castTo(Runnable.class);
+    } catch (ClassCastException e) {
+      // Cached negative result should also be reported as a ClassCastException.
+    }
+    a.castTo(Runnable.class);
+  }
+
+  @Test
+  public void toStringAndHashCodeMemoized() {
+    SynthesizedObject a = new ObjectSynthesizer().addInterface(Serializable.class).fallbackTo("hello").synthesize();
+
+    assertThat(a.toString(), allOf(
+        isSameReferenceAs(a.toString()),
+        startsWith("osynth(Serializable,SynthesizedObject):")));
+    assertThat(a.descriptor().toString(), isSameReferenceAs(a.descriptor().toString()));
+    assertThat(a.hashCode(), isEqualTo(a.descriptor().hashCode()));
+  }
+
+  @Test
+  public void sameFallbackDifferentInterfacesHaveDifferentHashCodes() {
+    SynthesizedObject a = new ObjectSynthesizer().fallbackTo("hello").synthesize();
+    SynthesizedObject b = new ObjectSynthesizer().addInterface(Serializable.class).fallbackTo("hello").synthesize();
+
+    assertThat(a.descriptor(), not(isEqualTo(b.descriptor())));
+    assertThat(a.descriptor().hashCode(), not(isEqualTo(b.descriptor().hashCode())));
+  }
+
+  @Test
+  public void importedDescriptorEqualWithSameHashCode() {
+    MethodHandler methodHandler = (m, args) -> null;
+    SynthesizedObject a = new ObjectSynthesizer().handle(methodCall("hello").with(methodHandler)).fallbackTo("hello").synthesize();
+    SynthesizedObject b = new ObjectSynthesizer(a.descriptor()).disableValidation().synthesize();
+
+    assertThat(a.descriptor().hashCode(), isEqualTo(b.descriptor().hashCode()));
+    assertThat(a, isEqualTo(b));
+  }
+
+  @Test
+  public void unchangedDescriptorIsSharedByBuilder() {
+    SynthesizedObject a = new ObjectSynthesizer().addInterface(Serializable.class).fallbackTo("hello").synthesize();
+
+    assertThat(new SynthesizedObject.Descriptor.Builder(a.descriptor()).build(), isSameReferenceAs(a.descriptor()));
+  }
+
+  @Test
+  public void toBuilderKeepsNonBuiltInMethodHandlers() {
+    MethodHandler methodHandler = (m, args) -> null;
+    SynthesizedObject a = new ObjectSynthesizer().handle(methodCall("hello").with(methodHandler)).fallbackTo("hello").synthesize();
+
+    SynthesizedObject.Descriptor descriptor = a.descriptor().toBuilder().build();
+
+    assertThat(descriptor.methodHandlerEntries(), isEqualTo(SynthesizedObject.Descriptor.nonBuiltInMethodHandlerEntriesOf(a.descriptor())));
+    assertThat(descriptor.methodHandlerEntries().size(), isEqualTo(1));
+  }
+
+  @Test
+  public void givenMutableFallback$whenMutatedAfterToString$thenToStringNotUpdated() {
+    StringBuilder fallback = new StringBuilder("before");
+    SynthesizedObject a = new ObjectSynthesizer().fallbackTo(fallback).synthesize();
+    String before = a.toString();
+
+    fallback.append(":after");
+
+    assertThat(a.toString(), allOf(
+        isEqualTo(before),
+        containsString("before"),
+        not(containsString("after"))));
+  }
+
+  @Test
+  public void hashCodeIsNoLongerFallbackObjectHashCode() {
+    SynthesizedObject a = new ObjectSynthesizer().fallbackTo("hello").synthesize();
+
+    assertThat(a.hashCode(), allOf(
+        isEqualTo(a.descriptor().hashCode()),
+        not(isEqualTo("hello".hashCode()))));
+  }
+
+  @Test
+  public void givenSharedMutableFallback$whenMutatedBetweenHashCodes$thenDescriptorsNotEqual() {
+    List<String> fallback = new ArrayList<>();
+    SynthesizedObject a = new ObjectSynthesizer().fallbackTo(fallback).synthesize();
+    int hashCodeBeforeMutation = a.descriptor().hashCode();
+
+    fallback.add("mutated");
+    SynthesizedObject.Descriptor b = a.descriptor().toBuilder().build();
+
+    assertThat(a.descriptor().hashCode(), isEqualTo(hashCodeBeforeMutation));
+    assertThat(b.hashCode(), not(isEqualTo(hashCodeBeforeMutation)));
+    assertThat(a.descriptor(), not(isEqualTo(b)));
+  }
+
+  @Test
+  public void givenSharedMutableFallback$whenNotMutated$thenDescriptorsEqual() {
+    List<String> fallback = new ArrayList<>();
+    SynthesizedObject a = new ObjectSynthesizer().fallbackTo(fallback).synthesize();
+    SynthesizedObject.Descriptor b = a.descriptor().toBuilder().build();
+
+    assertThat(a.descriptor(), isEqualTo(b));
+  }
 }
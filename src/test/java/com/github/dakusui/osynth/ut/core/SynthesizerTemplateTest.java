@@ -0,0 +1,173 @@
+package com.github.dakusui.osynth.ut.core;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import com.github.dakusui.osynth.core.SynthesizerTemplate;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class SynthesizerTemplateTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+
+    String bMethod(String message);
+
+    default String cMethod(String message) {
+      return "default:cMethod:" + message;
+    }
+  }
+
+  interface NonPublic {
+    default String hello() {
+      return "hello:" + ((SynthesizedObject) this).descriptor().fallbackObject();
+    }
+  }
+
+  public static class Impl {
+    final String name;
+
+    public Impl(String name) {
+      this.name = name;
+    }
+
+    public String bMethod(String message) {
+      return this.name + ":bMethod:" + message;
+    }
+
+    @Override
+    public String toString() {
+      return this.name;
+    }
+  }
+
+  @Test
+  public void givenTemplate$whenInstantiatedWithDifferentFallbacks$thenEachDelegatesToItsOwnFallback() {
+    SynthesizerTemplate template = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:aMethod:" + args[0]))
+        .toTemplate();
+
+    A a1 = template.instantiate(new Impl("impl1")).castTo(A.class);
+    A a2 = template.instantiate(new Impl("impl2")).castTo(A.class);
+
+    assertThat(a1.aMethod("hello") + "," + a1.bMethod("hello") + "," + a1.cMethod("hello"),
+        isEqualTo("handler:aMethod:hello,impl1:bMethod:hello,default:cMethod:hello"));
+    assertThat(a2.aMethod("hello") + "," + a2.bMethod("hello") + "," + a2.cMethod("hello"),
+        isEqualTo("handler:aMethod:hello,impl2:bMethod:hello,default:cMethod:hello"));
+  }
+
+  @Test
+  public void givenTemplateOfNonPublicInterface$whenInstantiatedTwice$thenProxiesOfSameClassCreated() {
+    SynthesizerTemplate template = new ObjectSynthesizer()
+        .addInterface(NonPublic.class)
+        .toTemplate();
+
+    SynthesizedObject o1 = template.instantiate(new Impl("impl1"));
+    SynthesizedObject o2 = template.instantiate(new Impl("impl2"));
+
+    assertThat(Proxy.isProxyClass(o1.getClass()), isTrue());
+    assertThat(o1.getClass(), isSameReferenceAs(o2.getClass()));
+    assertThat(o1.castTo(NonPublic.class).hello(), isEqualTo("hello:impl1"));
+    assertThat(o2.castTo(NonPublic.class).hello(), isEqualTo("hello:impl2"));
+  }
+
+  @Test
+  public void givenTemplate$whenInstantiated$thenDescriptorHasGivenFallbackAndSharesTheRest() {
+    SynthesizerTemplate template = new ObjectSynthesizer().addInterface(A.class).toTemplate();
+    Impl fallback = new Impl("impl");
+
+    SynthesizedObject.Descriptor descriptor = template.instantiate(fallback).descriptor();
+
+    assertThat(descriptor.fallbackObject(), isSameReferenceAs(fallback));
+    assertThat(descriptor.interfaces(), isSameReferenceAs(template.descriptor().interfaces()));
+    assertThat(descriptor.methodHandlerEntries(), isSameReferenceAs(template.descriptor().methodHandlerEntries()));
+  }
+
+  @Test
+  public void givenTemplate$whenInstantiatedWithSameAndDifferentFallbacks$thenEqualOnlyForSameFallback() {
+    SynthesizerTemplate template = new ObjectSynthesizer().addInterface(A.class).toTemplate();
+    Impl fallback = new Impl("impl");
+
+    SynthesizedObject a1 = template.instantiate(fallback);
+    SynthesizedObject a2 = template.instantiate(fallback);
+    SynthesizedObject a3 = template.instantiate(new Impl("another"));
+
+    assertThat(a1, allOf(isEqualTo(a2), not(isEqualTo(a3))));
+    assertThat(a1.hashCode(), isEqualTo(a2.hashCode()));
+    assertThat(a3.toString(), allOf(startsWith("osynth(A,SynthesizedObject):"), containsString("another")));
+  }
+
+  @Test
+  public void givenAutoLogging$whenTemplateInstanceInvoked$thenLogged() {
+    List<String> out = new LinkedList<>();
+    SynthesizerTemplate template = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .enableAutoLoggingWritingTo(out::add)
+        .toTemplate();
+
+    template.instantiate(new Impl("impl")).castTo(A.class).bMethod("hello");
+
+    assertThat(out.size(), isEqualTo(2));
+  }
+
+  @Test
+  public void givenManyFallbacks$whenSynthesizeAll$thenSynthesizedInOrder() {
+    List<Impl> fallbacks = new ArrayList<>();
+    for (int i = 0; i < SynthesizerTemplate.CHUNK_SIZE * 4 + 1; i++)
+      fallbacks.add(new Impl("impl" + i));
+
+    List<SynthesizedObject> synthesizedObjects = new ObjectSynthesizer().addInterface(A.class).synthesizeAll(fallbacks);
+
+    assertThat(synthesizedObjects.size(), isEqualTo(fallbacks.size()));
+    for (int i = 0; i < fallbacks.size(); i++)
+      assertThat(synthesizedObjects.get(i).castTo(A.class).bMethod("hello"), isEqualTo("impl" + i + ":bMethod:hello"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void givenCompiledSynthesisEnabled$whenToTemplate$thenIllegalStateException() {
+    new ObjectSynthesizer().addInterface(A.class).enableCompiledSynthesis().toTemplate();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void givenEagerResolutionEnabled$whenSynthesizeAll$thenIllegalStateException() {
+    new ObjectSynthesizer().addInterface(A.class).enableEagerResolution().synthesizeAll(Collections.singletonList(new Impl("impl")));
+  }
+
+  @Test
+  public void givenDefaultRestored$whenToTemplate$thenCreated() {
+    SynthesizerTemplate template = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .enableCompiledSynthesis()
+        .handleMethodsWithSignatureMatching()
+        .toTemplate();
+
+    assertThat(template.instantiate(new Impl("impl")).castTo(A.class).bMethod("hello"), isEqualTo("impl:bMethod:hello"));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void givenNullFallback$whenSynthesizeAllOnExecutor$thenExceptionThrown() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Impl> fallbacks = new ArrayList<>();
+      for (int i = 0; i < SynthesizerTemplate.CHUNK_SIZE * 2; i++)
+        fallbacks.add(new Impl("impl" + i));
+      fallbacks.add(null);
+
+      new ObjectSynthesizer().addInterface(A.class).synthesizeAll(fallbacks, executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
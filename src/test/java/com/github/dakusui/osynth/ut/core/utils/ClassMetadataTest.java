@@ -0,0 +1,60 @@
+package com.github.dakusui.osynth.ut.core.utils;
+
+import com.github.dakusui.osynth.core.MethodSignature;
+import com.github.dakusui.osynth.core.utils.ClassMetadata;
+import org.junit.Test;
+
+import java.io.Serializable;
+
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class ClassMetadataTest extends UtBase {
+  public interface A {
+    String aMethod();
+
+    default String defaultMethod() {
+      return "defaultMethod";
+    }
+  }
+
+  public interface B extends A, Serializable {
+  }
+
+  @Test
+  public void givenSameClass$whenOf$thenSameMetadataReturned() {
+    assertThat(ClassMetadata.of(B.class), isSameReferenceAs(ClassMetadata.of(B.class)));
+  }
+
+  @Test
+  public void givenSubInterface$whenIsAssignableTo$thenSameAsIsAssignableFrom() {
+    ClassMetadata metadata = ClassMetadata.of(B.class);
+
+    assertThat(metadata.isAssignableTo(B.class), isTrue());
+    assertThat(metadata.isAssignableTo(A.class), isTrue());
+    assertThat(metadata.isAssignableTo(Serializable.class), isTrue());
+    assertThat(metadata.isAssignableTo(Object.class), isTrue());
+    assertThat(metadata.isAssignableTo(Runnable.class), isFalse());
+  }
+
+  @Test
+  public void givenInheritedDefaultMethod$whenDefaultMethodHandlerFor$thenPresentAndCached() {
+    ClassMetadata metadata = ClassMetadata.of(B.class);
+
+    assertThat(metadata.defaultMethodHandlerFor(MethodSignature.create("defaultMethod")).isPresent(), isTrue());
+    assertThat(metadata.defaultMethodHandlerFor(MethodSignature.create("aMethod")).isPresent(), isFalse());
+    assertThat(
+        metadata.defaultMethodHandlerFor(MethodSignature.create("defaultMethod")).orElseThrow(AssertionError::new),
+        isSameReferenceAs(metadata.defaultMethodHandlerFor(MethodSignature.create("defaultMethod")).orElseThrow(AssertionError::new)));
+  }
+
+  @Test
+  public void givenMissingMethod$whenPublicMethodFor$thenEmpty() {
+    assertThat(ClassMetadata.of(A.class).publicMethodFor(MethodSignature.create("missing", String.class)).isPresent(), isFalse());
+  }
+
+  @Test
+  public void givenInterface$whenInterfaces$thenDirectSuperInterfacesReturned() {
+    assertThat(ClassMetadata.of(B.class).interfaces().size(), isEqualTo(2));
+  }
+}
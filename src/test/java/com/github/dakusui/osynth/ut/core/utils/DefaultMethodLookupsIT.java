@@ -0,0 +1,43 @@
+package com.github.dakusui.osynth.ut.core.utils;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.core.SynthesizedObject;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static com.github.dakusui.osynth.ut.core.utils.UtUtils.majorVersionOf;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+/**
+ * Runs against the packaged multi-release jar by `maven-failsafe-plugin`, which is
+ * configured by the `multi-release-jar` profile.
+ * Unlike unit tests, which run against `target/classes`, this test sees classes
+ * under `META-INF/versions/9`.
+ */
+public class DefaultMethodLookupsIT extends UtBase {
+  interface A {
+    default String defaultMethod() {
+      return "defaultMethod";
+    }
+  }
+
+  @Test
+  public void whenRunAgainstPackagedJar$thenClassForJava9Loaded() throws IOException {
+    assertThat(SynthesizedObject.class.getProtectionDomain().getCodeSource().getLocation().getPath(), endsWith(".jar"));
+    // A class compiled with `release` 9 has the major version 53.
+    assertThat(majorVersionOf("/com/github/dakusui/osynth/core/utils/DefaultMethodLookups.class"), isEqualTo(53));
+  }
+
+  @Test
+  public void givenNonPublicInterface$whenDefaultMethodInvoked$thenCalledThroughPrivateLookup() {
+    // Without `--add-opens`, the private constructor of `Lookup` is not accessible on JDK 16 and later.
+    A a = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .synthesize()
+        .castTo(A.class);
+
+    assertThat(a.defaultMethod(), isEqualTo("defaultMethod"));
+  }
+}
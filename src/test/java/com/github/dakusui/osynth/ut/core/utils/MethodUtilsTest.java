@@ -1,5 +1,7 @@
 package com.github.dakusui.osynth.ut.core.utils;
 
+import com.github.dakusui.osynth.core.MethodHandler;
+import com.github.dakusui.osynth.core.MethodSignature;
 import com.github.dakusui.osynth.core.utils.MethodUtils;
 import com.github.dakusui.osynth.exceptions.OsynthException;
 import org.junit.Test;
@@ -9,6 +11,7 @@ import java.util.function.Function;
 
 import static com.github.dakusui.osynth.core.utils.MethodUtils.prettierToString;
 import static com.github.dakusui.pcond.fluent.Fluents.objectValue;
+import static com.github.dakusui.pcond.forms.Predicates.isEqualTo;
 import static com.github.dakusui.pcond.forms.Predicates.isInstanceOf;
 import static com.github.dakusui.pcond.forms.Predicates.startsWith;
 import static com.github.dakusui.thincrest.TestAssertions.assertThat;
@@ -119,4 +122,49 @@ public class MethodUtilsTest extends UtBase {
 
     assertThat(v.toString(), startsWith("lambda:(Function):declared in"));
   }
+
+  static class Greeter {
+    public String greet(String name, int times) {
+      StringBuilder b = new StringBuilder();
+      for (int i = 0; i < times; i++)
+        b.append("Hello, ").append(name).append("!");
+      return b.toString();
+    }
+  }
+
+  static class AnotherGreeter {
+    public String greet(String name, int times) {
+      return "Hi, " + name + ":" + times;
+    }
+  }
+
+  @Test
+  public void givenObjectsOfDifferentClasses$whenDelegatingHandlersInvoked$thenMethodOfEachObjectCalled() throws Throwable {
+    MethodSignature signature = MethodSignature.create("greet", String.class, int.class);
+    MethodHandler handler = MethodUtils.createMethodHandlerDelegatingToObject(new Greeter(), signature);
+    MethodHandler anotherHandler = MethodUtils.createMethodHandlerDelegatingToObject(new AnotherGreeter(), signature);
+
+    assertThat(handler.handle(null, new Object[] { "World", 2 }), isEqualTo("Hello, World!Hello, World!"));
+    assertThat(handler.handle(null, new Object[] { "osynth", 1 }), isEqualTo("Hello, osynth!"));
+    assertThat(anotherHandler.handle(null, new Object[] { "World", 2 }), isEqualTo("Hi, World:2"));
+  }
+
+  @Test(expected = OsynthException.class)
+  public void givenMethodThrowingCheckedException$whenDelegatingHandlerInvoked$thenOsynthExceptionThrown() throws Throwable {
+    class TestCheckedException extends Exception {
+    }
+    class Failing {
+      @SuppressWarnings("unused")
+      public void fail() throws TestCheckedException {
+        throw new TestCheckedException();
+      }
+    }
+    MethodHandler handler = MethodUtils.createMethodHandlerDelegatingToObject(new Failing(), MethodSignature.create("fail"));
+    try {
+      handler.handle(null, new Object[0]);
+    } catch (OsynthException e) {
+      assertThat(e.getCause(), isInstanceOf(TestCheckedException.class));
+      throw e;
+    }
+  }
 }
@@ -1,9 +1,13 @@
 package com.github.dakusui.osynth.ut.core.utils;
 
 
+import com.github.dakusui.osynth.core.SynthesizedObject;
 import com.github.dakusui.thincrest_pcond.functions.Printable;
 import org.hamcrest.CoreMatchers;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.HashMap;
@@ -82,6 +86,34 @@ public enum UtUtils {
     return rootCause(t.getCause());
   }
 
+  /**
+   * Returns the major version of a class file, which is looked up as a resource
+   * by `SynthesizedObject.class`.
+   * In a multi-release jar, a resource for the running JDK is looked up.
+   *
+   * @param classFileName An absolute resource name of a class file.
+   * @return The major version of the class file.
+   * @throws IOException Failed to read the class file.
+   */
+  public static int majorVersionOf(String classFileName) throws IOException {
+    try (InputStream is = SynthesizedObject.class.getResourceAsStream(classFileName)) {
+      DataInputStream in = new DataInputStream(is);
+      in.readInt();
+      in.readUnsignedShort();
+      return in.readUnsignedShort();
+    }
+  }
+
+  /**
+   * Returns the feature version of the running JDK, e.g., `8` for JDK 1.8 and `25` for JDK 25.
+   *
+   * @return The feature version of the running JDK.
+   */
+  public static int javaFeatureVersion() {
+    String version = System.getProperty("java.specification.version");
+    return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+  }
+
   public static Predicate<String> nonEmptyString() {
     return Printable.predicate("nonEmptyString", v -> v.length() > 0);
   }
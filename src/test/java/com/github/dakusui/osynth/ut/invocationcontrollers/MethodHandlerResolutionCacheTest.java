@@ -0,0 +1,151 @@
+package com.github.dakusui.osynth.ut.invocationcontrollers;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.core.MethodHandlerEntry;
+import com.github.dakusui.osynth.invocationcontrollers.MethodHandlerResolutionCache;
+import com.github.dakusui.osynth.invocationcontrollers.StandardInvocationController;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.matching;
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class MethodHandlerResolutionCacheTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+
+    String bMethod(String message);
+
+    default String cMethod(String message) {
+      return "default:cMethod:<" + message + ">";
+    }
+  }
+
+  public static class Fallback implements A {
+    final String name;
+
+    Fallback(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String aMethod(String message) {
+      return this.name + ":aMethod:" + message;
+    }
+
+    @Override
+    public String bMethod(String message) {
+      return this.name + ":bMethod:" + message;
+    }
+  }
+
+  static final MethodHandlerEntry A_METHOD_HANDLER = methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:aMethod:<" + args[0] + ">");
+
+  @Test
+  public void givenStructurallyIdenticalSynthesizers$whenInvokeMethods$thenResolutionsShared() {
+    MethodHandlerResolutionCache cache = new MethodHandlerResolutionCache(100);
+
+    A a1 = synthesize(cache, new Fallback("fallback1"));
+    assertThat(a1.aMethod("hello"), isEqualTo("handler:aMethod:<hello>"));
+    assertThat(a1.bMethod("hello"), isEqualTo("fallback1:bMethod:hello"));
+    assertThat(a1.cMethod("hello"), isEqualTo("default:cMethod:<hello>"));
+    long missesForFirstObject = cache.missCount();
+
+    A a2 = synthesize(cache, new Fallback("fallback2"));
+    assertThat(a2.aMethod("world"), isEqualTo("handler:aMethod:<world>"));
+    assertThat(a2.bMethod("world"), isEqualTo("fallback2:bMethod:world"));
+    assertThat(a2.cMethod("world"), isEqualTo("default:cMethod:<world>"));
+
+    assertThat(cache.missCount(), isEqualTo(missesForFirstObject));
+    assertThat(cache.hitCount(), greaterThanOrEqualTo(3L));
+  }
+
+  @Test
+  public void givenDifferentHandlerEntries$whenInvokeMethods$thenResolutionsNotShared() {
+    MethodHandlerResolutionCache cache = new MethodHandlerResolutionCache(100);
+
+    A a1 = synthesize(cache, new Fallback("fallback1"));
+    assertThat(a1.aMethod("hello"), isEqualTo("handler:aMethod:<hello>"));
+
+    A a2 = new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("bMethod", String.class).with((synthesizedObject, args) -> "handler:bMethod:<" + args[0] + ">"))
+        .createInvocationControllerWith(objectSynthesizer -> new StandardInvocationController(objectSynthesizer.finalizedDescriptor(), cache))
+        .synthesize(new Fallback("fallback2"))
+        .castTo(A.class);
+    assertThat(a2.aMethod("hello"), isEqualTo("fallback2:aMethod:hello"));
+    assertThat(a2.bMethod("hello"), isEqualTo("handler:bMethod:<hello>"));
+  }
+
+  @Test
+  public void givenHandlerEntriesCreatedForEachSynthesis$whenInvokeMethods$thenResolutionsShared() {
+    MethodHandlerResolutionCache cache = new MethodHandlerResolutionCache(100);
+
+    A a1 = synthesizeWithNewHandlerEntry(cache, new Fallback("fallback1"));
+    assertThat(a1.aMethod("hello"), isEqualTo("handler:aMethod:<hello>"));
+    assertThat(a1.bMethod("hello"), isEqualTo("fallback1:bMethod:hello"));
+    long missesForFirstObject = cache.missCount();
+
+    A a2 = synthesizeWithNewHandlerEntry(cache, new Fallback("fallback2"));
+    assertThat(a2.aMethod("world"), isEqualTo("handler:aMethod:<world>"));
+    assertThat(a2.bMethod("world"), isEqualTo("fallback2:bMethod:world"));
+
+    assertThat(cache.missCount(), isEqualTo(missesForFirstObject));
+  }
+
+  @Test
+  public void givenCustomMatchersCreatedForEachSynthesis$whenInvokeMethods$thenResolutionsNotShared() {
+    MethodHandlerResolutionCache cache = new MethodHandlerResolutionCache(100);
+
+    A a1 = synthesizeWithCustomMatcher(cache, "aMethod");
+    assertThat(a1.aMethod("hello"), isEqualTo("handler:custom"));
+    assertThat(a1.bMethod("hello"), isEqualTo("fallback:bMethod:hello"));
+
+    A a2 = synthesizeWithCustomMatcher(cache, "bMethod");
+    assertThat(a2.aMethod("hello"), isEqualTo("fallback:aMethod:hello"));
+    assertThat(a2.bMethod("hello"), isEqualTo("handler:custom"));
+  }
+
+  @Test
+  public void givenSmallCache$whenResolveManyMethods$thenEvicted() {
+    MethodHandlerResolutionCache cache = new MethodHandlerResolutionCache(2);
+
+    A a = synthesize(cache, new Fallback("fallback"));
+    a.aMethod("hello");
+    a.bMethod("hello");
+    a.cMethod("hello");
+
+    assertThat(cache.size(), lessThanOrEqualTo(2));
+    assertThat(cache.evictionCount(), greaterThan(0L));
+    assertThat(a.bMethod("world"), isEqualTo("fallback:bMethod:world"));
+  }
+
+  private static A synthesizeWithNewHandlerEntry(MethodHandlerResolutionCache cache, A fallbackObject) {
+    return new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:aMethod:<" + args[0] + ">"))
+        .createInvocationControllerWith(objectSynthesizer -> new StandardInvocationController(objectSynthesizer.finalizedDescriptor(), cache))
+        .synthesize(fallbackObject)
+        .castTo(A.class);
+  }
+
+  private static A synthesizeWithCustomMatcher(MethodHandlerResolutionCache cache, String methodName) {
+    return new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall(matching(mm -> "custom", method -> method.getName().equals(methodName))).with((synthesizedObject, args) -> "handler:custom"))
+        .createInvocationControllerWith(objectSynthesizer -> new StandardInvocationController(objectSynthesizer.finalizedDescriptor(), cache))
+        .synthesize(new Fallback("fallback"))
+        .castTo(A.class);
+  }
+
+  private static A synthesize(MethodHandlerResolutionCache cache, A fallbackObject) {
+    return new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(A_METHOD_HANDLER)
+        .createInvocationControllerWith(objectSynthesizer -> new StandardInvocationController(objectSynthesizer.finalizedDescriptor(), cache))
+        .synthesize(fallbackObject)
+        .castTo(A.class);
+  }
+}
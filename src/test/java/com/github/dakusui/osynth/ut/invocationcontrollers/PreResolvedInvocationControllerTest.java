@@ -0,0 +1,61 @@
+package com.github.dakusui.osynth.ut.invocationcontrollers;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.exceptions.ValidationException;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class PreResolvedInvocationControllerTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+
+    String bMethod(String message);
+
+    default String cMethod(String message) {
+      return "default:cMethod:<" + message + ">";
+    }
+  }
+
+  public static class Fallback {
+    public String bMethod(String message) {
+      return "fallback:bMethod:" + message;
+    }
+  }
+
+  @Test
+  public void givenEagerResolution$whenInvokeMethods$thenHandledAsUsual() {
+    for (boolean parallel : new boolean[] { false, true }) {
+      A a = new ObjectSynthesizer()
+          .addInterface(A.class)
+          .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:aMethod:" + args[0]))
+          .fallbackTo(new Fallback())
+          .enableEagerResolution(parallel)
+          .synthesize()
+          .castTo(A.class);
+
+      assertThat(a.aMethod("hello"), isEqualTo("handler:aMethod:hello"));
+      assertThat(a.bMethod("hello"), isEqualTo("fallback:bMethod:hello"));
+      assertThat(a.cMethod("hello"), isEqualTo("default:cMethod:<hello>"));
+      assertThat(a.toString(), containsString("osynth"));
+    }
+  }
+
+  @Test(expected = ValidationException.class)
+  public void givenUnresolvableMethod$whenSynthesizeWithEagerResolution$thenValidationExceptionThrown() {
+    try {
+      new ObjectSynthesizer()
+          .addInterface(A.class)
+          .handle(methodCall("aMethod", String.class).with((synthesizedObject, args) -> "handler:aMethod:" + args[0]))
+          .enableEagerResolution()
+          .synthesize();
+    } catch (ValidationException e) {
+      e.printStackTrace();
+      assertThat(e.getMessage(), allOf(containsString("bMethod(String)"), not(containsString("aMethod"))));
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package com.github.dakusui.osynth.ut.metrics;
+
+import com.github.dakusui.osynth.ObjectSynthesizer;
+import com.github.dakusui.osynth.metrics.LatencyHistogram;
+import com.github.dakusui.osynth.metrics.MethodMetrics;
+import com.github.dakusui.osynth.metrics.MethodMetricsCollector;
+import com.github.dakusui.osynth.ut.core.utils.UtBase;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.osynth.ObjectSynthesizer.methodCall;
+import static com.github.dakusui.pcond.forms.Predicates.*;
+import static com.github.dakusui.thincrest.TestAssertions.assertThat;
+
+public class MethodMetricsCollectorTest extends UtBase {
+  public interface A {
+    String aMethod(String message);
+
+    String failingMethod(String message);
+  }
+
+  @Test
+  public void givenMetricsEnabled$whenMethodsInvoked$thenCallsAndErrorsCounted() throws Exception {
+    MethodMetricsCollector collector = new MethodMetricsCollector();
+    A a = createA(collector);
+    for (int i = 0; i < 10; i++) {
+      a.aMethod("hello");
+      try {
+        a.failingMethod("hello");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    }
+
+    MethodMetrics aMethod = collector.snapshotFor(A.class.getMethod("aMethod", String.class)).orElseThrow(AssertionError::new);
+    MethodMetrics failingMethod = collector.snapshotFor(A.class.getMethod("failingMethod", String.class)).orElseThrow(AssertionError::new);
+    assertThat(aMethod.callCount(), isEqualTo(10L));
+    assertThat(aMethod.errorCount(), isEqualTo(0L));
+    assertThat(failingMethod.callCount(), isEqualTo(10L));
+    assertThat(failingMethod.errorCount(), isEqualTo(10L));
+  }
+
+  @Test
+  public void givenMetricsEnabled$whenBuiltInMethodsInvoked$thenNotMeasured() {
+    MethodMetricsCollector collector = new MethodMetricsCollector();
+    A a = createA(collector);
+    System.out.println(a.toString());
+    System.out.println(a.hashCode());
+    a.aMethod("hello");
+
+    Map<Method, MethodMetrics> snapshot = collector.snapshot();
+    System.out.println(snapshot);
+    assertThat(snapshot.keySet().stream().allMatch(each -> each.getDeclaringClass().equals(A.class)), isTrue());
+  }
+
+  @Test
+  public void givenMetricsEnabled$whenInvokedConcurrently$thenAllCallsCounted() throws Exception {
+    MethodMetricsCollector collector = new MethodMetricsCollector();
+    A a = createA(collector);
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      for (int i = 0; i < 4; i++)
+        executorService.submit(() -> {
+          for (int j = 0; j < 1000; j++)
+            a.aMethod("hello");
+        });
+    } finally {
+      executorService.shutdown();
+      assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS), isTrue());
+    }
+
+    assertThat(collector.snapshotFor(A.class.getMethod("aMethod", String.class)).map(MethodMetrics::callCount).orElse(-1L), isEqualTo(4000L));
+  }
+
+  @Test
+  public void givenHistogram$whenValuesRecorded$thenPercentilesWithinRelativeError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long i = 1; i <= 1000; i++)
+      histogram.record(i * 1000);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    System.out.println(snapshot);
+    assertThat(snapshot.count(), isEqualTo(1000L));
+    assertThat(snapshot.max(), isEqualTo(1_000_000L));
+    assertThat(snapshot.valueAtPercentile(50), and(greaterThanOrEqualTo(500_000L), lessThanOrEqualTo(562_500L)));
+    assertThat(snapshot.valueAtPercentile(100), isEqualTo(1_000_000L));
+  }
+
+  @Test
+  public void givenEmptyHistogram$whenSnapshot$thenZeros() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+    assertThat(snapshot.count(), isEqualTo(0L));
+    assertThat(snapshot.valueAtPercentile(99), isEqualTo(0L));
+  }
+
+  private static A createA(MethodMetricsCollector collector) {
+    return new ObjectSynthesizer()
+        .addInterface(A.class)
+        .handle(methodCall("aMethod", String.class).with((self, args) -> "aMethod:" + args[0]))
+        .handle(methodCall("failingMethod", String.class).with((self, args) -> {
+          throw new IllegalStateException();
+        }))
+        .enableMetricsWith(collector)
+        .synthesize()
+        .castTo(A.class);
+  }
+}